@@ -0,0 +1,78 @@
+package com.tiertests.tiertagger.api.impl;
+
+import com.google.gson.stream.JsonReader;
+import com.tiertests.tiertagger.bench.MockTierApi;
+import com.tiertests.tiertagger.data.PlayerData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Turns one recorded response body into what the source hands TierManager, decoding from bytes
+// the way requestJson does. Lives in the sources' package to reach their readers directly.
+// Run with the gc profiler: gc.alloc.rate.norm is the bytes allocated per profile.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseParseBenchmark {
+    @Param({"tiertests-current", "tiertests-history", "mctiers-profile", "subtiers-profile", "pvptiers-profile"})
+    public String response;
+
+    // small: one ranked mode, typical: a handful with one badge, worst: every mode, every badge
+    @Param({"small", "typical", "worst"})
+    public String size;
+
+    private final TierTestsSource tierTests = new TierTestsSource();
+    private byte[] body;
+    private Reader reader;
+
+    @FunctionalInterface
+    private interface Reader {
+        Object read(JsonReader reader) throws IOException;
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        MockTierApi.loadModes();
+
+        try (InputStream in = ResponseParseBenchmark.class.getResourceAsStream("/responses/" + response + "-" + size + ".json")) {
+            if (in == null) throw new IllegalStateException("Missing fixture " + response + "-" + size);
+            body = in.readAllBytes();
+        }
+        reader = switch (response) {
+            case "tiertests-current" -> tierTests::readCurrentTiers;
+            case "tiertests-history" -> tierTests::readPeakTier;
+            default -> RankingsProfileReader::read;
+        };
+
+        // A fixture whose modes the catalog does not know would only measure skipping
+        Object parsed = parse();
+        PlayerData data = parsed instanceof TierTestsSource.CurrentTiers current ? current.playerData() : parsed instanceof PlayerData player ? player : null;
+        if (parsed == null || (data != null && data.isEmpty())) {
+            throw new IllegalStateException(response + "-" + size + " parsed to no tiers");
+        }
+    }
+
+    @Benchmark
+    public Object parse() throws IOException {
+        JsonReader json = new JsonReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+        return reader.read(json);
+    }
+}
@@ -0,0 +1,98 @@
+package com.tiertests.tiertagger.bench;
+
+import com.tiertests.tiertagger.config.IconType;
+import com.tiertests.tiertagger.config.ModConfig;
+import com.tiertests.tiertagger.data.GameMode;
+import com.tiertests.tiertagger.data.GameModeManager;
+import com.tiertests.tiertagger.data.ModeRegistry;
+import com.tiertests.tiertagger.util.IconResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The per-tag mode and icon lookups, each run once over every mode any source knows. Names
+// are looked up both as the source spells them and upper-cased, which misses the exact index.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModeLookupBenchmark {
+    @Param
+    public IconType iconType;
+
+    private GameMode[] modes;
+    private String[] names;
+
+    @Setup
+    public void setup() throws IOException {
+        MockTierApi.loadModes();
+        ModConfig.setIconType(iconType);
+
+        modes = new GameMode[ModeRegistry.slotCount()];
+        List<String> spellings = new ArrayList<>();
+        for (int slot = 0; slot < modes.length; slot++) {
+            modes[slot] = ModeRegistry.modeAt(slot);
+            spellings.add(modes[slot].name());
+            spellings.add(modes[slot].name().toUpperCase());
+        }
+        names = spellings.toArray(new String[0]);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ModConfig.setIconType(IconType.MCTIERS);
+    }
+
+    @Benchmark
+    public void resolve(Blackhole blackhole) {
+        for (GameMode mode : modes) {
+            blackhole.consume(IconResolver.resolve(mode));
+        }
+    }
+
+    @Benchmark
+    public void getClassicColor(Blackhole blackhole) {
+        for (GameMode mode : modes) {
+            blackhole.consume(IconResolver.getClassicColor(mode));
+        }
+    }
+
+    @Benchmark
+    public void isClassicIcon(Blackhole blackhole) {
+        for (GameMode mode : modes) {
+            blackhole.consume(IconResolver.isClassicIcon(mode));
+        }
+    }
+
+    @Benchmark
+    public void getFromInt(Blackhole blackhole) {
+        int size = GameModeManager.getGameModeSize();
+        for (int i = 0; i < size; i++) {
+            blackhole.consume(GameModeManager.getFromInt(i));
+        }
+    }
+
+    @Benchmark
+    public void getFromName(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(GameModeManager.getFromName(name));
+        }
+    }
+}
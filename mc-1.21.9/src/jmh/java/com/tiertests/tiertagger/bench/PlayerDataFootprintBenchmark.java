@@ -0,0 +1,123 @@
+package com.tiertests.tiertagger.bench;
+
+import com.tiertests.tiertagger.data.GameMode;
+import com.tiertests.tiertagger.data.PlayerData;
+import com.tiertests.tiertagger.data.Region;
+import com.tiertests.tiertagger.data.Tier;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Retained heap of a 10k player cache, reported as the retainedBytes counter. The time score
+// includes walking the object graph and is not meaningful on its own.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PlayerDataFootprintBenchmark {
+    private static final int PLAYERS = 10_000;
+    private static final Tier[] TIERS = Tier.values();
+    private static final Region[] REGIONS = {new Region("North America", "NA"), new Region("Europe", "EU"), new Region("Asia", "AS")};
+
+    private GameMode[] modes;
+    private UUID[] uuids;
+    private int[][] tierOrdinals;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        String[] names = {"Vanilla", "UHC", "Pot", "NethOP", "SMP", "Sword", "Axe", "Mace"};
+        modes = new GameMode[names.length];
+        for (int i = 0; i < names.length; i++) {
+            modes[i] = new GameMode(names[i], names[i].toLowerCase(), "#FFFFFF", null);
+        }
+
+        Random random = new Random(42);
+        uuids = new UUID[PLAYERS];
+        tierOrdinals = new int[PLAYERS][modes.length];
+        for (int p = 0; p < PLAYERS; p++) {
+            uuids[p] = new UUID(random.nextLong(), random.nextLong());
+            for (int m = 0; m < modes.length; m++) {
+                // Roughly three quarters of modes ranked, the rest left empty
+                tierOrdinals[p][m] = random.nextInt(4) == 0 ? -1 : random.nextInt(TIERS.length);
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<UUID, PlayerData> compact(Footprint footprint) {
+        Map<UUID, PlayerData> cache = new HashMap<>();
+        for (int p = 0; p < PLAYERS; p++) {
+            PlayerData.Builder data = PlayerData.builder();
+            for (int m = 0; m < modes.length; m++) {
+                int ordinal = tierOrdinals[p][m];
+                if (ordinal < 0) continue;
+                data.addTier(modes[m], TIERS[ordinal]);
+                data.addPeakTier(modes[m], TIERS[Math.max(0, ordinal - 1)]);
+            }
+            data.region(REGIONS[p % REGIONS.length]).lastUpdated(p);
+            cache.put(uuids[p], data.build());
+        }
+        footprint.retainedBytes = GraphLayout.parseInstance(cache).totalSize();
+        return cache;
+    }
+
+    @Benchmark
+    public Map<UUID, LegacyPlayerData> legacy(Footprint footprint) {
+        Map<UUID, LegacyPlayerData> cache = new HashMap<>();
+        for (int p = 0; p < PLAYERS; p++) {
+            LegacyPlayerData data = new LegacyPlayerData();
+            for (int m = 0; m < modes.length; m++) {
+                int ordinal = tierOrdinals[p][m];
+                if (ordinal < 0) continue;
+                data.tiers.put(modes[m], TIERS[ordinal]);
+                data.peakTiers.put(modes[m], TIERS[Math.max(0, ordinal - 1)]);
+            }
+            data.region = REGIONS[p % REGIONS.length];
+            data.lastUpdated = p;
+            cache.put(uuids[p], data);
+        }
+        footprint.retainedBytes = GraphLayout.parseInstance(cache).totalSize();
+        return cache;
+    }
+
+    // The map-backed layout PlayerData used before tiers were packed into slot arrays
+    public static final class LegacyPlayerData {
+        private final Map<GameMode, Tier> tiers = new HashMap<>();
+        private final Map<GameMode, Tier> peakTiers = new HashMap<>();
+        private Region region;
+        private String badge;
+        private long lastUpdated;
+        private int rank;
+        private int points;
+        private volatile int version;
+    }
+}
@@ -0,0 +1,181 @@
+package com.tiertests.tiertagger.api;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.tiertests.tiertagger.TierTaggerCommon;
+import com.tiertests.tiertagger.api.http.Endpoint;
+import com.tiertests.tiertagger.api.http.FetchPriority;
+import com.tiertests.tiertagger.api.http.HttpTransport;
+import com.tiertests.tiertagger.api.http.RateLimiter;
+import com.tiertests.tiertagger.data.NameResult;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+public class NameResolver {
+    private static final int MAX_BATCH_SIZE = 10;
+    private static final long BATCH_WINDOW_MS = 50;
+    private static final int MAX_BATCH_RETRIES = 1;
+    private static final Pattern VALID_NAME = Pattern.compile("^[A-Za-z0-9_]{1,16}$");
+    private static final Gson gson = new Gson();
+
+    private static final Map<String, CompletableFuture<NameResult>> pending = new ConcurrentHashMap<>();
+    private static final List<String> batch = new ArrayList<>();
+    private static boolean flushScheduled = false;
+
+    public static CompletableFuture<NameResult> resolve(String username) {
+        // One invalid name makes Mojang reject the whole batch, so never queue one
+        if (!VALID_NAME.matcher(username).matches()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String lowerName = username.toLowerCase();
+        CompletableFuture<NameResult> future = new CompletableFuture<>();
+        CompletableFuture<NameResult> existing = pending.putIfAbsent(lowerName, future);
+        if (existing != null) return existing;
+
+        List<String> fullBatch = null;
+        synchronized (batch) {
+            batch.add(lowerName);
+            if (batch.size() >= MAX_BATCH_SIZE) {
+                fullBatch = drainBatch();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                CompletableFuture.delayedExecutor(BATCH_WINDOW_MS, TimeUnit.MILLISECONDS, TierAPI.getExecutor())
+                        .execute(NameResolver::flushBatch);
+            }
+        }
+
+        if (fullBatch != null) {
+            lookup(fullBatch, MAX_BATCH_RETRIES);
+        }
+        return future;
+    }
+
+    private static void flushBatch() {
+        List<String> names;
+        synchronized (batch) {
+            flushScheduled = false;
+            names = drainBatch();
+        }
+
+        if (!names.isEmpty()) {
+            lookup(names, MAX_BATCH_RETRIES);
+        }
+    }
+
+    private static List<String> drainBatch() {
+        List<String> names = new ArrayList<>(batch);
+        batch.clear();
+        return names;
+    }
+
+    private static void lookup(List<String> names, int retriesLeft) {
+        HttpRequest request = HttpTransport.request(Endpoint.MOJANG.getBase() + "/minecraft/profile/lookup/bulk/byname")
+                .timeout(Duration.ofSeconds(5))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(names), StandardCharsets.UTF_8))
+                .build();
+
+        send(request).whenComplete((response, error) -> {
+            // A throttled batch is sent again once the limiter's backoff has passed; if it is still
+            // throttled, each name is looked up on its own, through the same limiter
+            if (error == null && response.statusCode() == 429) {
+                if (retriesLeft > 0) {
+                    lookup(names, retriesLeft - 1);
+                    return;
+                }
+                TierTaggerCommon.LOGGER.debug("Bulk name lookup throttled, resolving {} names individually", names.size());
+                for (String name : names) {
+                    lookupSingle(name);
+                }
+                return;
+            }
+
+            Map<String, NameResult> results = new HashMap<>();
+            if (error != null) {
+                TierTaggerCommon.LOGGER.debug("Bulk name lookup failed: {}", error.getMessage());
+            } else if (response.statusCode() == 200) {
+                try {
+                    JsonArray profiles = JsonParser.parseString(response.body()).getAsJsonArray();
+                    for (JsonElement element : profiles) {
+                        NameResult result = parseProfile(element.getAsJsonObject());
+                        results.put(result.name().toLowerCase(), result);
+                    }
+                } catch (Exception e) {
+                    TierTaggerCommon.LOGGER.debug("Invalid bulk name lookup response: {}", e.getMessage());
+                }
+            } else {
+                TierTaggerCommon.LOGGER.debug("Bulk name lookup returned {}", response.statusCode());
+            }
+
+            for (String name : names) {
+                complete(name, results.get(name));
+            }
+        });
+    }
+
+    private static void lookupSingle(String name) {
+        HttpRequest request = HttpTransport.request(Endpoint.MOJANG.getBase() + "/minecraft/profile/lookup/name/" + name)
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+
+        send(request).whenComplete((response, error) -> {
+            NameResult result = null;
+            if (error != null) {
+                TierTaggerCommon.LOGGER.debug("Name lookup failed: {}", error.getMessage());
+            } else if (response.statusCode() == 200) {
+                try {
+                    result = parseProfile(JsonParser.parseString(response.body()).getAsJsonObject());
+                } catch (Exception e) {
+                    TierTaggerCommon.LOGGER.debug("Invalid name lookup response: {}", e.getMessage());
+                }
+            }
+            complete(name, result);
+        });
+    }
+
+    // Names are only looked up for searches, so Mojang traffic is always sent as user work
+    private static CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+        RateLimiter limiter = RateLimiter.forMojang();
+        return limiter.acquire(FetchPriority.USER)
+                .thenCompose(v -> HttpTransport.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)))
+                .thenApply(response -> {
+                    limiter.onResponse(response);
+                    return response;
+                });
+    }
+
+    private static void complete(String name, NameResult result) {
+        CompletableFuture<NameResult> future = pending.remove(name);
+        if (future != null) {
+            future.complete(result);
+        }
+    }
+
+    private static NameResult parseProfile(JsonObject profile) {
+        return new NameResult(profile.get("name").getAsString(), parseUndashed(profile.get("id").getAsString()));
+    }
+
+    private static UUID parseUndashed(String id) {
+        String dashed = id.replaceFirst(
+                "(\\p{XDigit}{8})(\\p{XDigit}{4})(\\p{XDigit}{4})(\\p{XDigit}{4})(\\p{XDigit}{12})",
+                "$1-$2-$3-$4-$5");
+        return UUID.fromString(dashed);
+    }
+}
@@ -6,28 +6,39 @@ import com.tiertests.tiertagger.data.PlayerData;
 import com.tiertests.tiertagger.data.PlayerResult;
 import com.tiertests.tiertagger.manager.TierManager;
 import com.google.gson.Gson;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 
 import com.tiertests.tiertagger.TierTaggerCommon;
-
-import java.io.BufferedReader;
+import com.tiertests.tiertagger.api.http.CircuitBreaker;
+import com.tiertests.tiertagger.api.http.FetchPriority;
+import com.tiertests.tiertagger.api.http.HttpTransport;
+import com.tiertests.tiertagger.api.http.RateLimiter;
+import com.tiertests.tiertagger.api.http.RequestPermits;
+import com.tiertests.tiertagger.api.http.WorkQueue;
+import com.tiertests.tiertagger.config.ModConfig;
+import com.tiertests.tiertagger.util.BoundedCache;
+
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 public abstract class TierSource {
-    protected final ExecutorService executor = TierAPI.getExecutor();
+    protected final Executor executor = TierAPI.getExecutor();
+    private final RequestPermits permits = new RequestPermits();
     protected static final Gson gson = new Gson();
-    protected static final Map<String, NameResult> nameCache = new ConcurrentHashMap<>();
+    protected static final BoundedCache<String, NameResult> nameCache =
+            new BoundedCache<>("names", ModConfig::getNameCacheSize);
+    private static final int MAX_THROTTLE_RETRIES = 2;
 
     protected Map<String, String> icons = Map.ofEntries(
             Map.entry("axe", "\uE701"),
@@ -53,6 +64,11 @@ public abstract class TierSource {
             Map.entry("vanilla", "#FF55FF")
     );
 
+    @FunctionalInterface
+    protected interface JsonBodyReader<T> {
+        T read(JsonReader reader) throws IOException;
+    }
+
     public abstract String getName();
 
     public abstract String getBase();
@@ -70,121 +86,114 @@ public abstract class TierSource {
     }
 
     private CompletableFuture<PlayerResult> fetchPlayerDataByName(String username, boolean skipCache) {
-        String lowerName = username.toLowerCase();
-        NameResult cachedName = nameCache.get(lowerName);
-        if (cachedName != null) {
-            if (!skipCache) {
-                PlayerData cachedData = TierManager.getCachedData(cachedName.uuid());
-                if (cachedData != null) {
-                    return CompletableFuture.completedFuture(new PlayerResult(cachedName.name(), cachedData));
-                }
-            }
-            return fetchPlayerData(cachedName.uuid(), username).thenApply(data -> {
-                return new PlayerResult(cachedName.name(), data);
-            });
-        }
-
+        TierSourceFactory.TierSources type = TierSourceFactory.getType(this);
+        FetchPriority priority = FetchPriority.current();
         return getUUID(username).thenCompose(result -> {
             if (result == null) {
                 return CompletableFuture.completedFuture(null);
             }
-            if (!skipCache) {
-                PlayerData cachedData = TierManager.getCachedData(result.uuid());
-                if (cachedData != null) {
-                    return CompletableFuture.completedFuture(new PlayerResult(result.name(), cachedData));
-                }
-            }
-            return fetchPlayerData(result.uuid(), username).thenApply(data -> {
+            return FetchPriority.supplyAs(priority, () -> TierManager.loadPlayerData(type, result.uuid(), username, skipCache)).thenApply(data -> {
                 return new PlayerResult(result.name(), data);
             });
         });
     }
 
-    protected String makeRequest(String method, String endpoint, String body) {
-        String fullUrl = getBase() + endpoint;
-
-        try {
-            URL url = URI.create(fullUrl).toURL();
-
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod(method);
-            conn.setRequestProperty("User-Agent", "TierTagger/" + TierTaggerCommon.VERSION);
-            conn.setRequestProperty("Accept", "application/json");
-            conn.setConnectTimeout(15000);
-            conn.setReadTimeout(15000);
-
-            if (body != null) {
-                conn.setRequestProperty("Content-Type", "application/json");
-                conn.setDoOutput(true);
-                try (OutputStream os = conn.getOutputStream()) {
-                    byte[] input = body.getBytes(StandardCharsets.UTF_8);
-                    os.write(input, 0, input.length);
-                }
-            }
+    protected CompletableFuture<String> makeRequest(String method, String endpoint, String body) {
+        return send(method, endpoint, body, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .thenApply(response -> response != null && HttpTransport.isSuccess(response) ? response.body() : null)
+                .exceptionally(e -> {
+                    TierTaggerCommon.LOGGER.debug("Request error for {}{}: {}", getBase(), endpoint, e.getMessage());
+                    return null;
+                });
+    }
 
-            int responseCode = conn.getResponseCode();
-            if (responseCode < 200 || responseCode >= 300) {
-                conn.disconnect();
-                return null;
-            }
+    protected <T> CompletableFuture<T> requestJson(String method, String endpoint, String body, JsonBodyReader<T> bodyReader) {
+        return requestJson(method, endpoint, body, bodyReader, () -> null);
+    }
 
-            InputStream stream = conn.getInputStream();
-            if (stream == null) {
-                conn.disconnect();
-                return null;
-            }
+    protected <T> CompletableFuture<T> requestJson(String method, String endpoint, String body, JsonBodyReader<T> bodyReader, Supplier<T> notFound) {
+        return send(method, endpoint, body, HttpResponse.BodyHandlers.ofInputStream()).thenApply(response -> {
+            if (response == null) return null;
 
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(stream, StandardCharsets.UTF_8))) {
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-                return response.toString();
-            } finally {
-                conn.disconnect();
+            try (InputStream in = response.body()) {
+                if (response.statusCode() == 404) return notFound.get();
+                if (!HttpTransport.isSuccess(response)) return null;
+
+                JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+                return bodyReader.read(reader);
+            } catch (Exception e) {
+                TierTaggerCommon.LOGGER.error("Error reading response from {}{}", getBase(), endpoint, e);
+                return null;
             }
-        } catch (Exception e) {
+        }).exceptionally(e -> {
             TierTaggerCommon.LOGGER.debug("Request error for {}{}: {}", getBase(), endpoint, e.getMessage());
             return null;
+        });
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(String method, String endpoint, String body, HttpResponse.BodyHandler<T> handler) {
+        HttpRequest.Builder builder = HttpTransport.request(getBase() + endpoint)
+                .header("Accept", "application/json")
+                .method(method, body != null
+                        ? HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8)
+                        : HttpRequest.BodyPublishers.noBody());
+        if (body != null) {
+            builder.header("Content-Type", "application/json");
         }
+
+        TierSourceFactory.TierSources type = TierSourceFactory.getType(this);
+        CircuitBreaker breaker = CircuitBreaker.forSource(type);
+        if (!breaker.tryAcquire()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return sendLimited(RateLimiter.forSource(type), FetchPriority.current(), builder.build(), handler, MAX_THROTTLE_RETRIES)
+                .whenComplete((response, e) -> {
+                    if (isCancelled(e)) {
+                        breaker.recordCancelled();
+                    } else if (e != null || response.statusCode() >= 500) {
+                        breaker.recordFailure();
+                    } else {
+                        breaker.recordSuccess();
+                    }
+                });
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendLimited(RateLimiter limiter, FetchPriority priority, HttpRequest request, HttpResponse.BodyHandler<T> handler, int retriesLeft) {
+        CompletableFuture<Void> permit = limiter.acquire(priority);
+        WorkQueue.attach(permit);
+        return permit
+                .thenCompose(v -> HttpTransport.send(request, handler, permits))
+                .thenCompose(response -> {
+                    limiter.onResponse(response);
+                    if (retriesLeft > 0 && isThrottled(response)) {
+                        HttpTransport.discard(response);
+                        return sendLimited(limiter, priority, request, handler, retriesLeft - 1);
+                    }
+                    return CompletableFuture.completedFuture(response);
+                });
+    }
+
+    private static boolean isCancelled(Throwable e) {
+        return e instanceof CancellationException || (e instanceof CompletionException && e.getCause() instanceof CancellationException);
+    }
+
+    private static boolean isThrottled(HttpResponse<?> response) {
+        return response.statusCode() == 429 || response.statusCode() == 503;
     }
 
     protected CompletableFuture<NameResult> getUUID(String username) {
         final String lowerName = username.toLowerCase();
-        if (nameCache.containsKey(lowerName)) {
-            return CompletableFuture.completedFuture(nameCache.get(lowerName));
+        NameResult cached = nameCache.get(lowerName);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
         }
 
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String url = "https://api.mojang.com/users/profiles/minecraft/" + username;
-                URL mojangUrl = URI.create(url).toURL();
-                HttpURLConnection conn = (HttpURLConnection) mojangUrl.openConnection();
-                conn.setRequestMethod("GET");
-                conn.setConnectTimeout(5000);
-                conn.setReadTimeout(5000);
-
-                if (conn.getResponseCode() != 200) {
-                    return null;
-                }
-
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
-                    JsonObject obj = gson.fromJson(reader, JsonObject.class);
-                    String correctName = obj.get("name").getAsString();
-                    String id = obj.get("id").getAsString();
-                    String dashed = id.replaceFirst(
-                            "(\\p{XDigit}{8})(\\p{XDigit}{4})(\\p{XDigit}{4})(\\p{XDigit}{4})(\\p{XDigit}{12})",
-                            "$1-$2-$3-$4-$5");
-                    UUID uuid = UUID.fromString(dashed);
-                    NameResult result = new NameResult(correctName, uuid);
-                    nameCache.put(lowerName, result);
-                    return result;
-                }
-            } catch (Exception e) {
-                return null;
+        return NameResolver.resolve(username).thenApply(result -> {
+            if (result != null) {
+                nameCache.put(lowerName, result);
             }
-        }, executor);
+            return result;
+        });
     }
 }
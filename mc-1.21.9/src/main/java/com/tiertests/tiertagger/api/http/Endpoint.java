@@ -0,0 +1,47 @@
+package com.tiertests.tiertagger.api.http;
+
+import lombok.Getter;
+
+import java.net.URI;
+
+// Every remote host the mod reads from. A base can be repointed with
+// -Dtiertagger.endpoint.<key>=<url> or setBase, e.g. at a local mock server.
+public enum Endpoint {
+    TIER_TESTS("tier-tests", "https://api.tiertests.com/v1"),
+    MC_TIERS("mctiers", "https://mctiers.com/api/v2"),
+    SUB_TIERS("subtiers", "https://subtiers.net/api/v2"),
+    PVP_TIERS("pvptiers", "https://pvptiers.com/api"),
+    MOJANG("mojang", "https://api.minecraftservices.com"),
+    SKINS("skins", "https://skins.mcstats.com");
+
+    @Getter
+    private final String key;
+    private final String defaultBase;
+    private volatile String base;
+
+    Endpoint(String key, String defaultBase) {
+        this.key = key;
+        this.defaultBase = defaultBase;
+        this.base = System.getProperty("tiertagger.endpoint." + key, defaultBase);
+    }
+
+    public String getBase() {
+        return base;
+    }
+
+    // The key of the endpoint a request went to, or its host for anything else
+    public static String nameOf(URI uri) {
+        String url = uri.toString();
+        for (Endpoint endpoint : values()) {
+            if (url.startsWith(endpoint.base)) {
+                return endpoint.key;
+            }
+        }
+        return uri.getHost();
+    }
+
+    // null restores the built-in host
+    public void setBase(String base) {
+        this.base = base != null ? base : defaultBase;
+    }
+}
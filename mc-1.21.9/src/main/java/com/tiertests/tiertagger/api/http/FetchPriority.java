@@ -0,0 +1,37 @@
+package com.tiertests.tiertagger.api.http;
+
+import java.util.function.Supplier;
+
+// Order in which waiting requests are let through a source's rate limiter, most urgent first
+public enum FetchPriority {
+    USER,
+    TARGET,
+    NEARBY,
+    TAB,
+    ENRICHMENT;
+
+    private static final ThreadLocal<FetchPriority> CURRENT = ThreadLocal.withInitial(() -> NEARBY);
+
+    public static FetchPriority current() {
+        return CURRENT.get();
+    }
+
+    // Requests take the priority of the thread that issues them, so this only has to cover the
+    // synchronous part of the call; continuations that send more requests set their own
+    public static <T> T supplyAs(FetchPriority priority, Supplier<T> work) {
+        FetchPriority previous = CURRENT.get();
+        CURRENT.set(priority);
+        try {
+            return work.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static void runAs(FetchPriority priority, Runnable work) {
+        supplyAs(priority, () -> {
+            work.run();
+            return null;
+        });
+    }
+}
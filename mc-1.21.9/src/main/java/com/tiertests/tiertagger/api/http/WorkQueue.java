@@ -0,0 +1,241 @@
+package com.tiertests.tiertagger.api.http;
+
+import com.tiertests.tiertagger.TierTaggerCommon;
+import com.tiertests.tiertagger.config.ModConfig;
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Caps how much work of one kind can be outstanding at once. Work past the concurrency limit
+// waits in a bounded queue, a duplicate of queued or running work shares its result, and a
+// full queue sheds by the class's policy. Shed work completes with null, which callers already
+// treat as a failed request. User lookups are never queued, shed or cancelled.
+public class WorkQueue {
+    private static final Map<WorkClass, WorkQueue> QUEUES = new EnumMap<>(WorkClass.class);
+    private static final ThreadLocal<Waits> RUNNING = new ThreadLocal<>();
+
+    public enum Shedding {
+        // The oldest waiting task is usually for a player who has since moved away or left
+        DROP_OLDEST,
+        // Waiting tasks are all still wanted, so the new one is turned away
+        REJECT_NEWEST
+    }
+
+    // Limits here are defaults; the config can override them per class
+    @Getter
+    public enum WorkClass {
+        TIER_DATA("Tier data", "tier-data", 6, 64, Shedding.DROP_OLDEST),
+        ENRICHMENT("Enrichment", "enrichment", 4, 128, Shedding.DROP_OLDEST),
+        SKINS("Skins", "skins", 4, 32, Shedding.DROP_OLDEST),
+        METADATA("Metadata", "metadata", 2, 16, Shedding.REJECT_NEWEST);
+
+        private final String displayName;
+        private final String key;
+        private final int defaultMaxRunning;
+        private final int defaultCapacity;
+        private final Shedding shedding;
+
+        WorkClass(String displayName, String key, int defaultMaxRunning, int defaultCapacity, Shedding shedding) {
+            this.displayName = displayName;
+            this.key = key;
+            this.defaultMaxRunning = defaultMaxRunning;
+            this.defaultCapacity = defaultCapacity;
+            this.shedding = shedding;
+        }
+    }
+
+    static {
+        for (WorkClass workClass : WorkClass.values()) {
+            QUEUES.put(workClass, new WorkQueue(workClass));
+        }
+    }
+
+    @Getter
+    private final WorkClass workClass;
+    private final Map<Object, Task<?>> active = new HashMap<>();
+    private final ArrayDeque<Task<?>> queued = new ArrayDeque<>();
+    private int running;
+    private int peakDepth;
+    private long submitted;
+    private long coalesced;
+    private long dropped;
+
+    private record Task<T>(Object key, FetchPriority priority, Supplier<CompletableFuture<T>> work, CompletableFuture<T> result, Waits waits) {}
+
+    // What a started task is blocked on, such as a rate limiter permit; cancelled with the task
+    private static final class Waits {
+        private final List<CompletableFuture<?>> futures = new ArrayList<>();
+        private boolean cancelled;
+
+        private synchronized void add(CompletableFuture<?> future) {
+            if (cancelled) {
+                future.cancel(false);
+            } else {
+                futures.add(future);
+            }
+        }
+
+        private void cancel() {
+            List<CompletableFuture<?>> toCancel;
+            synchronized (this) {
+                cancelled = true;
+                toCancel = new ArrayList<>(futures);
+                futures.clear();
+            }
+            for (CompletableFuture<?> future : toCancel) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    public record Stats(String name, int depth, int peakDepth, int running, long submitted, long coalesced, long dropped) {}
+
+    WorkQueue(WorkClass workClass) {
+        this.workClass = workClass;
+    }
+
+    public static WorkQueue of(WorkClass workClass) {
+        return QUEUES.get(workClass);
+    }
+
+    public static List<Stats> getAllStats() {
+        List<Stats> stats = new ArrayList<>();
+        for (WorkQueue queue : QUEUES.values()) {
+            stats.add(queue.getStats());
+        }
+        return stats;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> submit(Object key, Supplier<CompletableFuture<T>> work) {
+        FetchPriority priority = FetchPriority.current();
+        Task<?> toStart = null;
+        Task<?> shed = null;
+        CompletableFuture<T> result;
+
+        synchronized (this) {
+            submitted++;
+            Task<?> existing = active.get(key);
+            if (existing != null) {
+                coalesced++;
+                if (priority == FetchPriority.USER && queued.remove(existing)) {
+                    running++;
+                    toStart = promote(existing);
+                    active.put(key, toStart);
+                }
+                result = (CompletableFuture<T>) existing.result();
+            } else {
+                Task<T> task = new Task<>(key, priority, work, new CompletableFuture<>(), new Waits());
+                result = task.result();
+                if (priority == FetchPriority.USER || running < ModConfig.getMaxRunning(workClass)) {
+                    running++;
+                    active.put(key, task);
+                    toStart = task;
+                } else if (queued.size() < ModConfig.getQueueCapacity(workClass)) {
+                    enqueue(task);
+                } else if (workClass.getShedding() == Shedding.DROP_OLDEST) {
+                    shed = queued.pollFirst();
+                    active.remove(shed.key());
+                    enqueue(task);
+                } else {
+                    shed = task;
+                }
+                if (shed != null) {
+                    dropped++;
+                }
+            }
+        }
+
+        if (shed != null) {
+            TierTaggerCommon.LOGGER.debug("{} queue full, shedding {}", workClass.getDisplayName(), shed.key());
+            shed.result().complete(null);
+        }
+        if (toStart != null) {
+            start(toStart);
+        }
+        return result;
+    }
+
+    // Ties a wait to the task being started on this thread, so cancelling the task ends the wait
+    public static void attach(CompletableFuture<?> wait) {
+        Waits waits = RUNNING.get();
+        if (waits != null && !wait.isDone()) {
+            waits.add(wait);
+        }
+    }
+
+    // Queued work is dropped before it sends anything; started work has its waits cancelled, so
+    // a request still held by a rate limiter is never sent
+    public void cancel(Object key) {
+        Task<?> task;
+        boolean wasQueued;
+        synchronized (this) {
+            task = active.get(key);
+            if (task == null || task.priority() == FetchPriority.USER) return;
+
+            // A player who comes back before started work winds down gets a fresh fetch
+            wasQueued = queued.remove(task);
+            active.remove(key);
+        }
+
+        if (wasQueued) {
+            task.result().complete(null);
+        } else {
+            task.waits().cancel();
+        }
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(workClass.getDisplayName(), queued.size(), peakDepth, running, submitted, coalesced, dropped);
+    }
+
+    private static <T> Task<T> promote(Task<T> task) {
+        return new Task<>(task.key(), FetchPriority.USER, task.work(), task.result(), task.waits());
+    }
+
+    private void enqueue(Task<?> task) {
+        active.put(task.key(), task);
+        queued.addLast(task);
+        peakDepth = Math.max(peakDepth, queued.size());
+    }
+
+    private <T> void start(Task<T> task) {
+        CompletableFuture<T> future;
+        Waits previous = RUNNING.get();
+        RUNNING.set(task.waits());
+        try {
+            future = FetchPriority.supplyAs(task.priority(), task.work());
+        } catch (Throwable e) {
+            future = CompletableFuture.failedFuture(e);
+        } finally {
+            RUNNING.set(previous);
+        }
+
+        future.whenComplete((value, error) -> {
+            Task<?> next;
+            synchronized (this) {
+                active.remove(task.key(), task);
+                next = running <= ModConfig.getMaxRunning(workClass) ? queued.pollFirst() : null;
+                if (next == null) {
+                    running--;
+                }
+            }
+
+            if (error != null) {
+                task.result().completeExceptionally(error);
+            } else {
+                task.result().complete(value);
+            }
+            if (next != null) {
+                start(next);
+            }
+        });
+    }
+}
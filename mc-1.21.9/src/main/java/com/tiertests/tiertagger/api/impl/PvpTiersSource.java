@@ -1,25 +1,15 @@
 package com.tiertests.tiertagger.api.impl;
 
-import com.tiertests.tiertagger.TierTaggerCommon;
 import com.tiertests.tiertagger.api.TierSource;
+import com.tiertests.tiertagger.api.http.Endpoint;
 import com.tiertests.tiertagger.data.*;
-import com.google.common.reflect.TypeToken;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.tiertests.tiertagger.util.StringUtils;
 
-import java.lang.reflect.Type;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 public class PvpTiersSource extends TierSource {
-    private final Type modesType = new TypeToken<Map<String, Map<String, JsonElement>>>() {
-    }.getType();
-
     @Override
     public String getName() {
         return "PVPTiers";
@@ -27,7 +17,7 @@ public class PvpTiersSource extends TierSource {
 
     @Override
     public String getBase() {
-        return "https://pvptiers.com/api";
+        return Endpoint.PVP_TIERS.getBase();
     }
 
     @Override
@@ -36,74 +26,7 @@ public class PvpTiersSource extends TierSource {
     }
 
     private CompletableFuture<PlayerData> fetchPlayerDataByIGN(String ign) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                PlayerData playerData = new PlayerData();
-
-                String data = makeRequest("GET", "/search_profile/" + ign, null);
-                if (data == null)
-                    return null;
-
-                JsonObject dataObj = JsonParser.parseString(data).getAsJsonObject();
-
-                if (dataObj.has("region") && !dataObj.get("region").isJsonNull()) {
-                    JsonElement region = dataObj.get("region");
-                    String regionStr = region.getAsString();
-
-                    playerData.setRegion(new Region(regionStr, regionStr));
-                }
-
-                if (dataObj.has("rankings")) {
-                    JsonObject rankingsObj = dataObj.get("rankings").getAsJsonObject();
-                    Map<String, Map<String, JsonElement>> rankings = gson.fromJson(rankingsObj, modesType);
-                    if (rankings != null) {
-                        for (Map.Entry<String, Map<String, JsonElement>> rank : rankings.entrySet()) {
-                            String gameModeStr = rank.getKey();
-                            Map<String, JsonElement> obj = rank.getValue();
-
-                            String tierStr = (obj.get("pos").getAsInt() == 1 ? "L" : "H") + "T"
-                                    + obj.get("tier").getAsInt();
-
-                            GameMode mode = GameModeManager.getFromName(gameModeStr);
-                            Tier tier = Tier.fromString(tierStr);
-
-                            if (mode == null || tier == null)
-                                continue;
-
-                            playerData.addTier(mode, tier);
-                        }
-                    }
-                }
-
-                if (dataObj.has("badges")) {
-                    JsonArray badge = dataObj.getAsJsonArray("badges");
-                    if (badge != null && !badge.isEmpty()) {
-                        JsonObject badgeObj = badge.get(0).getAsJsonObject();
-                        String badgeStr = badgeObj.get("title").getAsString();
-                        badgeStr = StringUtils.sanitize(badgeStr);
-                        playerData.setBadge(badgeStr);
-                    } else {
-                        playerData.setBadge("");
-                    }
-                } else {
-                    playerData.setBadge("");
-                }
-
-                if (dataObj.has("overall") && !dataObj.get("overall").isJsonNull()) {
-                    playerData.setRank(dataObj.get("overall").getAsInt());
-                    if (dataObj.has("points")) {
-                        playerData.setPoints(dataObj.get("points").getAsInt());
-                    }
-                }
-
-                playerData.setLastUpdated(System.currentTimeMillis());
-
-                return playerData;
-            } catch (Exception ex) {
-                TierTaggerCommon.LOGGER.error("Error fetching player data from PVPTiers", ex);
-            }
-            return null;
-        }, executor);
+        return requestJson("GET", "/search_profile/" + ign, null, RankingsProfileReader::read, () -> PlayerData.EMPTY);
     }
 
     @Override
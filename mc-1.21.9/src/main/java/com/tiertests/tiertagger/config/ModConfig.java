@@ -2,12 +2,17 @@ package com.tiertests.tiertagger.config;
 
 import com.tiertests.tiertagger.TierTaggerCommon;
 import com.tiertests.tiertagger.api.TierSourceFactory;
+import com.tiertests.tiertagger.api.http.WorkQueue;
 import com.tiertests.tiertagger.data.GameMode;
 import com.tiertests.tiertagger.data.GameModeManager;
 import com.tiertests.tiertagger.manager.TierManager;
 import lombok.Getter;
+import lombok.Setter;
 
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ModConfig {
 
@@ -35,6 +40,86 @@ public class ModConfig {
     @Getter
     static TierSourceFactory.TierSources tierSource = TierSourceFactory.TierSources.TIER_TESTS;
 
+    @Getter
+    static boolean showMetricsOverlay = false;
+
+    // Per-source overrides of the rates in TierSources; a missing entry uses the default
+    static final Map<TierSourceFactory.TierSources, Integer> requestsPerSecond = new EnumMap<>(TierSourceFactory.TierSources.class);
+    static final Map<TierSourceFactory.TierSources, Integer> requestBurst = new EnumMap<>(TierSourceFactory.TierSources.class);
+
+    // Per-class overrides of the limits in WorkClass; a missing entry uses the default
+    static final Map<WorkQueue.WorkClass, Integer> maxRunning = new EnumMap<>(WorkQueue.WorkClass.class);
+    static final Map<WorkQueue.WorkClass, Integer> queueCapacity = new EnumMap<>(WorkQueue.WorkClass.class);
+
+    @Getter
+    @Setter
+    static ExecutorMode executorMode = ExecutorMode.PLATFORM;
+
+    // Read on every virtual-mode request, so a change applies without a restart
+    @Getter
+    @Setter
+    static int maxRequestsPerSource = 16;
+
+    // 0 follows the selected source's request burst, so its rate limiter sets the pace
+    @Setter
+    static int maxBackgroundFetches = 0;
+
+    @Getter
+    static int playerCacheSize = 2000;
+
+    @Getter
+    static int nameCacheSize = 1000;
+
+    @Getter
+    static int skinCacheSize = 256;
+
+    // Bumped from the render thread, config screens and mode loads on executor threads
+    private static final AtomicInteger epoch = new AtomicInteger();
+
+    public static int getEpoch() {
+        return epoch.get();
+    }
+
+    public static void bumpEpoch() {
+        epoch.incrementAndGet();
+    }
+
+    public static int getMaxBackgroundFetches() {
+        return maxBackgroundFetches > 0 ? maxBackgroundFetches : getRequestBurst(tierSource);
+    }
+
+    public static int getRequestsPerSecond(TierSourceFactory.TierSources source) {
+        return requestsPerSecond.getOrDefault(source, source.getDefaultRequestsPerSecond());
+    }
+
+    public static void setRequestsPerSecond(TierSourceFactory.TierSources source, int rate) {
+        requestsPerSecond.put(source, Math.max(1, rate));
+    }
+
+    public static int getRequestBurst(TierSourceFactory.TierSources source) {
+        return requestBurst.getOrDefault(source, source.getDefaultRequestBurst());
+    }
+
+    public static void setRequestBurst(TierSourceFactory.TierSources source, int burst) {
+        requestBurst.put(source, Math.max(1, burst));
+    }
+
+    public static int getMaxRunning(WorkQueue.WorkClass workClass) {
+        return maxRunning.getOrDefault(workClass, workClass.getDefaultMaxRunning());
+    }
+
+    public static void setMaxRunning(WorkQueue.WorkClass workClass, int running) {
+        maxRunning.put(workClass, Math.max(1, running));
+    }
+
+    public static int getQueueCapacity(WorkQueue.WorkClass workClass) {
+        return queueCapacity.getOrDefault(workClass, workClass.getDefaultCapacity());
+    }
+
+    public static void setQueueCapacity(WorkQueue.WorkClass workClass, int capacity) {
+        queueCapacity.put(workClass, Math.max(1, capacity));
+    }
+
     public static GameMode getSelectedGameMode() {
         GameMode mode = GameModeManager.getFromInt(gameMode);
         if (mode != null)
@@ -70,6 +155,7 @@ public class ModConfig {
             return;
 
         gameMode = Math.floorMod(gameMode + 1, size);
+        bumpEpoch();
         ModConfigLoader.save();
     }
 
@@ -81,9 +167,15 @@ public class ModConfig {
 
         DisplayMode[] values = DisplayMode.values();
         tierDisplayMode = values[(tierDisplayMode.ordinal() + 1) % values.length];
+        bumpEpoch();
         ModConfigLoader.save();
     }
 
+    public static void setTierDisplayMode(DisplayMode mode) {
+        tierDisplayMode = mode;
+        bumpEpoch();
+    }
+
     public static void nextTierDisplayType() {
         if (displayType == null) {
             displayType = DisplayType.values()[0];
@@ -92,37 +184,54 @@ public class ModConfig {
 
         DisplayType[] values = DisplayType.values();
         displayType = values[(displayType.ordinal() + 1) % values.length];
+        bumpEpoch();
         ModConfigLoader.save();
     }
 
     public static void toggleUseMCTiersFormat() {
         useMCTiersFormat = !useMCTiersFormat;
+        bumpEpoch();
         ModConfigLoader.save();
     }
 
     public static void toggleShowRegion() {
         showRegion = !showRegion;
+        bumpEpoch();
         ModConfigLoader.save();
     }
 
     public static void toggleShowInTab() {
         showInTab = !showInTab;
+        bumpEpoch();
+        ModConfigLoader.save();
+    }
+
+    public static void toggleShowMetricsOverlay() {
+        showMetricsOverlay = !showMetricsOverlay;
         ModConfigLoader.save();
     }
 
     public static void nextIconType() {
         IconType[] values = IconType.values();
         iconType = values[(iconType.ordinal() + 1) % values.length];
+        bumpEpoch();
         ModConfigLoader.save();
     }
 
+    public static void setIconType(IconType type) {
+        iconType = type;
+        bumpEpoch();
+    }
+
     public static void nextTierSource() {
         TierSourceFactory.TierSources[] sources = TierSourceFactory.TierSources.values();
         int nextOrdinal = (tierSource.ordinal() + 1) % sources.length;
         tierSource = sources[nextOrdinal];
+        bumpEpoch();
         ModConfigLoader.save();
         GameModeManager.updateModes().thenRun(() -> {
             gameMode = 0;
+            bumpEpoch();
             ModConfigLoader.save();
         });
         TierManager.clearCache();
@@ -131,5 +240,6 @@ public class ModConfig {
 
     public static void setGamemode(int i) {
         gameMode = i;
+        bumpEpoch();
     }
 }
@@ -2,6 +2,7 @@ package com.tiertests.tiertagger.config;
 
 import com.tiertests.tiertagger.TierTaggerCommon;
 import com.tiertests.tiertagger.api.TierSourceFactory;
+import com.tiertests.tiertagger.api.http.WorkQueue;
 import org.yaml.snakeyaml.Yaml;
 
 import java.io.IOException;
@@ -62,6 +63,9 @@ public class ModConfigLoader {
                 ModConfig.showInTab =
                         (boolean) data.getOrDefault("show-in-tab", true);
 
+                ModConfig.showMetricsOverlay =
+                        (boolean) data.getOrDefault("show-metrics-overlay", false);
+
                 int tierSourceOrdinal = (int) data.getOrDefault("tier-source", 0);
                 TierSourceFactory.TierSources[] sources = TierSourceFactory.TierSources.values();
                 ModConfig.tierSource = tierSourceOrdinal >= 0 && tierSourceOrdinal < sources.length
@@ -79,11 +83,42 @@ public class ModConfigLoader {
                 } catch (IllegalArgumentException e) {
                     ModConfig.iconType = IconType.MCTIERS;
                 }
+
+                loadRateLimits(data);
+                loadWorkQueues(data);
+
+                try {
+                    ModConfig.executorMode =
+                            ExecutorMode.valueOf(
+                                    (String) data.getOrDefault(
+                                            "executor-mode",
+                                            ExecutorMode.PLATFORM.name()
+                                    )
+                            );
+                } catch (IllegalArgumentException e) {
+                    ModConfig.executorMode = ExecutorMode.PLATFORM;
+                }
+
+                ModConfig.maxRequestsPerSource =
+                        Math.max(1, (int) data.getOrDefault("max-requests-per-source", 16));
+
+                ModConfig.maxBackgroundFetches =
+                        Math.max(0, (int) data.getOrDefault("max-background-fetches", 0));
+
+                ModConfig.playerCacheSize =
+                        Math.max(1, (int) data.getOrDefault("player-cache-size", 2000));
+
+                ModConfig.nameCacheSize =
+                        Math.max(1, (int) data.getOrDefault("name-cache-size", 1000));
+
+                ModConfig.skinCacheSize =
+                        Math.max(1, (int) data.getOrDefault("skin-cache-size", 256));
             }
 
         } catch (Exception e) {
             TierTaggerCommon.LOGGER.error("Error loading config", e);
         }
+        ModConfig.bumpEpoch();
     }
 
     public static void save() {
@@ -98,8 +133,31 @@ public class ModConfigLoader {
                 configMap.put("use-mc-tiers-format", ModConfig.isUseMCTiersFormat());
                 configMap.put("show-region", ModConfig.isShowRegion());
                 configMap.put("show-in-tab", ModConfig.isShowInTab());
+                configMap.put("show-metrics-overlay", ModConfig.isShowMetricsOverlay());
                 configMap.put("tier-source", ModConfig.getTierSource().ordinal());
                 configMap.put("icon-type", ModConfig.getIconType().name());
+                Map<String, Object> rateLimits = new java.util.LinkedHashMap<>();
+                for (TierSourceFactory.TierSources source : TierSourceFactory.TierSources.values()) {
+                    Map<String, Object> limits = new java.util.LinkedHashMap<>();
+                    limits.put("requests-per-second", ModConfig.getRequestsPerSecond(source));
+                    limits.put("request-burst", ModConfig.getRequestBurst(source));
+                    rateLimits.put(source.getKey(), limits);
+                }
+                configMap.put("rate-limits", rateLimits);
+                Map<String, Object> workQueues = new java.util.LinkedHashMap<>();
+                for (WorkQueue.WorkClass workClass : WorkQueue.WorkClass.values()) {
+                    Map<String, Object> limits = new java.util.LinkedHashMap<>();
+                    limits.put("max-running", ModConfig.getMaxRunning(workClass));
+                    limits.put("capacity", ModConfig.getQueueCapacity(workClass));
+                    workQueues.put(workClass.getKey(), limits);
+                }
+                configMap.put("work-queues", workQueues);
+                configMap.put("executor-mode", ModConfig.getExecutorMode().name());
+                configMap.put("max-requests-per-source", ModConfig.getMaxRequestsPerSource());
+                configMap.put("max-background-fetches", ModConfig.maxBackgroundFetches);
+                configMap.put("player-cache-size", ModConfig.getPlayerCacheSize());
+                configMap.put("name-cache-size", ModConfig.getNameCacheSize());
+                configMap.put("skin-cache-size", ModConfig.getSkinCacheSize());
                 YAML.dump(configMap, writer);
             }
 
@@ -108,6 +166,42 @@ public class ModConfigLoader {
         }
     }
 
+    // A source without an entry under rate-limits keeps its default
+    private static void loadRateLimits(Map<String, Object> data) {
+        ModConfig.requestsPerSecond.clear();
+        ModConfig.requestBurst.clear();
+
+        Object rateLimits = data.get("rate-limits");
+        for (TierSourceFactory.TierSources source : TierSourceFactory.TierSources.values()) {
+            if (!(rateLimits instanceof Map<?, ?> all) || !(all.get(source.getKey()) instanceof Map<?, ?> limits)) continue;
+
+            if (limits.get("requests-per-second") instanceof Integer rate) {
+                ModConfig.setRequestsPerSecond(source, rate);
+            }
+            if (limits.get("request-burst") instanceof Integer burst) {
+                ModConfig.setRequestBurst(source, burst);
+            }
+        }
+    }
+
+    // A class without an entry under work-queues keeps its default
+    private static void loadWorkQueues(Map<String, Object> data) {
+        ModConfig.maxRunning.clear();
+        ModConfig.queueCapacity.clear();
+
+        Object workQueues = data.get("work-queues");
+        for (WorkQueue.WorkClass workClass : WorkQueue.WorkClass.values()) {
+            if (!(workQueues instanceof Map<?, ?> all) || !(all.get(workClass.getKey()) instanceof Map<?, ?> limits)) continue;
+
+            if (limits.get("max-running") instanceof Integer running) {
+                ModConfig.setMaxRunning(workClass, running);
+            }
+            if (limits.get("capacity") instanceof Integer capacity) {
+                ModConfig.setQueueCapacity(workClass, capacity);
+            }
+        }
+    }
+
     private static void saveDefaults() {
         save();
     }
@@ -1,8 +1,8 @@
 package com.tiertests.tiertagger.hud;
 
 import com.tiertests.tiertagger.api.TierAPI;
-import com.tiertests.tiertagger.api.TierSource;
 import com.tiertests.tiertagger.api.TierSourceFactory;
+import com.tiertests.tiertagger.api.http.FetchPriority;
 import com.tiertests.tiertagger.config.ModConfig;
 import com.tiertests.tiertagger.data.GameMode;
 import com.tiertests.tiertagger.data.PlayerData;
@@ -54,7 +54,7 @@ public class LookupHud {
             return;
         }
 
-        TierAPI.fetchPlayerData(lookupUuid, lookupName).thenAccept(data -> {
+        FetchPriority.supplyAs(FetchPriority.USER, () -> TierAPI.fetchPlayerData(lookupUuid, lookupName)).thenAccept(data -> {
             if (data != null && !data.isEmpty()) {
                 Minecraft.getInstance().execute(() -> {
                     lookupData = data;
@@ -63,7 +63,7 @@ public class LookupHud {
                     showStartTime = System.currentTimeMillis();
                 });
             } else {
-                fetchBestFallbackSource(lookupUuid, lookupName);
+                FetchPriority.runAs(FetchPriority.USER, () -> fetchBestFallbackSource(lookupUuid, lookupName));
             }
         });
     }
@@ -78,13 +78,12 @@ public class LookupHud {
                 futures[i] = CompletableFuture.completedFuture(null);
                 continue;
             }
-            TierSource src = TierSourceFactory.getTierSource(sources[i]);
-            if (src == null) {
+            if (TierSourceFactory.getTierSource(sources[i]) == null) {
                 futures[i] = CompletableFuture.completedFuture(null);
                 continue;
             }
             final int idx = i;
-            futures[i] = src.fetchPlayerData(uuid, name)
+            futures[i] = TierManager.loadPlayerData(sources[i], uuid, name)
                     .thenAccept(d -> results[idx] = d)
                     .exceptionally(ex -> null);
         }
@@ -309,7 +308,7 @@ public class LookupHud {
         graphics.fill(x, barY, x + barWidth, barY + 3, 0xFF6c5ce7);
     }
 
-    private static void renderBorder(GuiGraphics graphics, int x, int y, int w, int h, int color) {
+    static void renderBorder(GuiGraphics graphics, int x, int y, int w, int h, int color) {
         graphics.fill(x, y, x + w, y + 1, color);           // top
         graphics.fill(x, y + h - 1, x + w, y + h, color);   // bottom
         graphics.fill(x, y, x + 1, y + h, color);            // left
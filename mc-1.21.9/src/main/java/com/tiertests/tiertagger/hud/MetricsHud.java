@@ -0,0 +1,99 @@
+package com.tiertests.tiertagger.hud;
+
+import com.tiertests.tiertagger.api.TierAPI;
+import com.tiertests.tiertagger.api.http.WorkQueue;
+import com.tiertests.tiertagger.config.ExecutorMode;
+import com.tiertests.tiertagger.config.ModConfig;
+import com.tiertests.tiertagger.util.Metrics;
+import com.tiertests.tiertagger.util.StringUtils;
+import net.minecraft.client.DeltaTracker;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiGraphics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class MetricsHud {
+
+    private static final long REFRESH_MS = 250;
+    private static final int PANEL_PADDING = 6;
+    private static final int PANEL_MARGIN = 6;
+    private static final int LINE_HEIGHT = 10;
+
+    private static List<String> lines = List.of();
+    private static int panelWidth = 0;
+    private static long lastRefresh = 0;
+
+    public static void render(GuiGraphics graphics, DeltaTracker deltaTracker) {
+        if (!ModConfig.isShowMetricsOverlay()) return;
+
+        Metrics.endFrame();
+
+        // Rebuilt a few times a second so the overlay does not cost what it measures
+        long now = System.currentTimeMillis();
+        if (now - lastRefresh >= REFRESH_MS) {
+            lastRefresh = now;
+            refresh();
+        }
+
+        Minecraft mc = Minecraft.getInstance();
+        int panelHeight = lines.size() * LINE_HEIGHT + PANEL_PADDING * 2;
+        int x = graphics.guiWidth() - panelWidth - PANEL_MARGIN;
+        int y = PANEL_MARGIN;
+
+        graphics.fill(x, y, x + panelWidth, y + panelHeight, 0xCC1a1a2e);
+        LookupHud.renderBorder(graphics, x, y, panelWidth, panelHeight, 0xFF6c5ce7);
+
+        int lineY = y + PANEL_PADDING;
+        for (String line : lines) {
+            graphics.drawString(mc.font, line, x + PANEL_PADDING, lineY, 0xFFFFFFFF, true);
+            lineY += LINE_HEIGHT;
+        }
+    }
+
+    private static void refresh() {
+        List<String> next = new ArrayList<>();
+
+        next.add("§dRequests");
+        for (Metrics.RequestStats stats : Metrics.getRequestStats()) {
+            StringBuilder statuses = new StringBuilder();
+            for (Map.Entry<Integer, Long> entry : stats.statuses().entrySet()) {
+                statuses.append(" §7").append(entry.getKey()).append("§f×").append(entry.getValue());
+            }
+            if (stats.failures() > 0) {
+                statuses.append(" §cerr§f×").append(stats.failures());
+            }
+            next.add("§f" + stats.name() + " §7" + stats.count()
+                    + " §fp50 " + latency(stats.p50Ms()) + " p95 " + latency(stats.p95Ms()) + statuses);
+        }
+
+        next.add("§dCaches");
+        for (Metrics.CacheStats stats : Metrics.getCacheStats()) {
+            next.add(String.format("§f%s §a%d§7/§e%d§7/§c%d§7/§8%d §f%.0f%%",
+                    stats.name(), stats.hits(), stats.stale(), stats.misses(), stats.negative(), stats.hitRate() * 100));
+        }
+
+        next.add("§dQueues");
+        next.add("§fexecutor §7" + (ModConfig.getExecutorMode() == ExecutorMode.VIRTUAL ? "virtual" : TierAPI.getExecutorQueueDepth() + " queued"));
+        for (WorkQueue.Stats stats : WorkQueue.getAllStats()) {
+            next.add("§f" + stats.name() + " §7" + stats.depth() + " queued, " + stats.running() + " running, " + stats.dropped() + " dropped");
+        }
+
+        Metrics.FrameStats frames = Metrics.getFrameStats();
+        next.add("§dRender");
+        next.add("§ftags §7" + frames.avgMicros() + "µs avg, " + frames.maxMicros() + "µs max over " + frames.frames() + " frames");
+
+        Minecraft mc = Minecraft.getInstance();
+        int width = 0;
+        for (String line : next) {
+            width = Math.max(width, mc.font.width(StringUtils.stripColorCodes(line)));
+        }
+        lines = next;
+        panelWidth = width + PANEL_PADDING * 2;
+    }
+
+    private static String latency(long ms) {
+        return ms < 0 ? ">5s" : "≤" + ms + "ms";
+    }
+}
@@ -0,0 +1,94 @@
+package com.tiertests.tiertagger.manager;
+
+import com.tiertests.tiertagger.api.TierSourceFactory;
+import com.tiertests.tiertagger.data.GameMode;
+import com.tiertests.tiertagger.data.ModeRegistry;
+import com.tiertests.tiertagger.data.PlayerData;
+import com.tiertests.tiertagger.data.Tier;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+// One player's data from every non-selected source, merged when it is stored so the
+// cross-source display modes read a precomputed answer instead of walking every tier
+public class CrossSourceIndex {
+    static final CrossSourceIndex EMPTY = new CrossSourceIndex(new EnumMap<>(TierSourceFactory.TierSources.class));
+
+    private static final Tier[] TIERS = Tier.values();
+
+    @Getter
+    private final Map<TierSourceFactory.TierSources, PlayerData> sources;
+    // Tier ordinal + 1 per ModeRegistry id, 0 when no source ranks that mode
+    private final byte[] bestByMode;
+    @Getter
+    private final GameMode bestMode;
+    @Getter
+    private final Tier bestTier;
+    @Getter
+    private final TierSourceFactory.TierSources bestSource;
+
+    private CrossSourceIndex(EnumMap<TierSourceFactory.TierSources, PlayerData> sources) {
+        this.sources = Collections.unmodifiableMap(sources);
+
+        byte[] best = new byte[ModeRegistry.size()];
+        GameMode topMode = null;
+        Tier topTier = null;
+        TierSourceFactory.TierSources topSource = null;
+
+        for (Map.Entry<TierSourceFactory.TierSources, PlayerData> source : sources.entrySet()) {
+            for (Map.Entry<GameMode, Tier> entry : source.getValue().getTiers().entrySet()) {
+                Tier tier = entry.getValue();
+                int id = ModeRegistry.idOf(entry.getKey());
+                if (id >= best.length) {
+                    best = Arrays.copyOf(best, Math.max(id + 1, ModeRegistry.size()));
+                }
+                if (best[id] == 0 || tier.ordinal() + 1 < best[id]) {
+                    best[id] = (byte) (tier.ordinal() + 1);
+                }
+                if (topTier == null || tier.ordinal() < topTier.ordinal()) {
+                    topMode = entry.getKey();
+                    topTier = tier;
+                    topSource = source.getKey();
+                }
+            }
+        }
+
+        this.bestByMode = best;
+        this.bestMode = topMode;
+        this.bestTier = topTier;
+        this.bestSource = topSource;
+    }
+
+    public Tier getBestTier(GameMode mode) {
+        int id = ModeRegistry.idOf(mode);
+        if (id < 0 || id >= bestByMode.length || bestByMode[id] == 0) return null;
+        return TIERS[bestByMode[id] - 1];
+    }
+
+    public PlayerData get(TierSourceFactory.TierSources source) {
+        return sources.get(source);
+    }
+
+    CrossSourceIndex with(TierSourceFactory.TierSources source, PlayerData data) {
+        EnumMap<TierSourceFactory.TierSources, PlayerData> updated = copySources();
+        updated.put(source, data);
+        return new CrossSourceIndex(updated);
+    }
+
+    CrossSourceIndex without(TierSourceFactory.TierSources source, PlayerData data) {
+        if (sources.get(source) != data) return this;
+
+        EnumMap<TierSourceFactory.TierSources, PlayerData> updated = copySources();
+        updated.remove(source);
+        return updated.isEmpty() ? null : new CrossSourceIndex(updated);
+    }
+
+    private EnumMap<TierSourceFactory.TierSources, PlayerData> copySources() {
+        EnumMap<TierSourceFactory.TierSources, PlayerData> copy = new EnumMap<>(TierSourceFactory.TierSources.class);
+        copy.putAll(sources);
+        return copy;
+    }
+}
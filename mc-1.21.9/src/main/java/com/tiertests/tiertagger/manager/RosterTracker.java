@@ -0,0 +1,248 @@
+package com.tiertests.tiertagger.manager;
+
+import com.tiertests.tiertagger.TierTaggerCommon;
+import com.tiertests.tiertagger.api.http.FetchPriority;
+import com.tiertests.tiertagger.config.ModConfig;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.client.player.AbstractClientPlayer;
+import net.minecraft.client.player.LocalPlayer;
+import net.minecraft.world.entity.Entity;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+
+// Players known from loaded entities and the tab list, kept current by join and leave events.
+// A tick only drains new arrivals and checks the earliest refresh deadline, so idle ticks are free.
+// Players due a fetch wait in a queue and are sent most relevant first, about as many at a time
+// as the source's rate limiter lets through at once, so it sets the pace without a backlog that
+// a player walking closer could not overtake. Work for a player who leaves is cancelled.
+public class RosterTracker {
+    private static final long CLEANUP_DELAY_MS = 2 * 60 * 1000;
+
+    private static final Map<UUID, Member> roster = new HashMap<>();
+    private static final Queue<UUID> arrivals = new ArrayDeque<>();
+    private static final Set<UUID> queued = new HashSet<>();
+    private static final Set<UUID> pendingFetches = ConcurrentHashMap.newKeySet();
+    private static final PriorityBlockingQueue<Refresh> refreshes = new PriorityBlockingQueue<>();
+    private static long cleanupAt = 0;
+    private static ClientLevel level = null;
+
+    private static final class Member {
+        private String name;
+        private boolean inWorld;
+        private boolean inTab;
+        private AbstractClientPlayer entity;
+
+        private Member(String name) {
+            this.name = name;
+        }
+    }
+
+    private record Refresh(long dueAt, UUID uuid) implements Comparable<Refresh> {
+        @Override
+        public int compareTo(Refresh other) {
+            return Long.compare(dueAt, other.dueAt);
+        }
+    }
+
+    public static void onEntityLoad(Entity entity, ClientLevel entityLevel) {
+        if (entityLevel != level) {
+            if (level != null) {
+                onWorldChange();
+            }
+            level = entityLevel;
+        }
+
+        if (entity instanceof AbstractClientPlayer player) {
+            Member member = join(player.getUUID(), player.getName().getString());
+            member.inWorld = true;
+            member.entity = player;
+        }
+    }
+
+    public static void onEntityUnload(Entity entity, ClientLevel entityLevel) {
+        if (entityLevel != level || !(entity instanceof AbstractClientPlayer player)) return;
+
+        Member member = roster.get(player.getUUID());
+        if (member != null) {
+            member.inWorld = false;
+            member.entity = null;
+            leaveIfGone(player.getUUID(), member);
+        }
+    }
+
+    public static void onTabAdd(UUID uuid, String name) {
+        if (uuid == null || name == null || name.isEmpty()) return;
+        join(uuid, name).inTab = true;
+    }
+
+    public static void onTabRemove(UUID uuid) {
+        Member member = roster.get(uuid);
+        if (member != null) {
+            member.inTab = false;
+            leaveIfGone(uuid, member);
+        }
+    }
+
+    // Entities of the previous level are gone; tab entries belong to the connection and stay
+    private static void onWorldChange() {
+        roster.values().forEach(member -> {
+            member.inWorld = false;
+            member.entity = null;
+        });
+        roster.entrySet().removeIf(entry -> !entry.getValue().inTab);
+        queued.retainAll(roster.keySet());
+        pendingFetches.removeIf(uuid -> {
+            if (roster.containsKey(uuid)) return false;
+            TierManager.cancelFetches(uuid);
+            return true;
+        });
+        scheduleCleanup();
+    }
+
+    public static void clear() {
+        level = null;
+        roster.clear();
+        arrivals.clear();
+        queued.clear();
+        pendingFetches.forEach(TierManager::cancelFetches);
+        pendingFetches.clear();
+        refreshes.clear();
+        scheduleCleanup();
+    }
+
+    public static void clearPendingFetches() {
+        queued.clear();
+        pendingFetches.clear();
+        refreshes.clear();
+        arrivals.addAll(roster.keySet());
+    }
+
+    public static void tick() {
+        UUID arrived;
+        while ((arrived = arrivals.poll()) != null) {
+            check(arrived);
+        }
+
+        // Taken off the queue before checking: a fetch that completes inline re-schedules
+        // its player straight away, and must not be picked up again by this drain
+        long now = System.currentTimeMillis();
+        List<UUID> due = new ArrayList<>();
+        Refresh next;
+        while ((next = refreshes.peek()) != null && next.dueAt() <= now) {
+            refreshes.poll();
+            due.add(next.uuid());
+        }
+        for (UUID uuid : due) {
+            check(uuid);
+        }
+
+        dispatch();
+
+        if (cleanupAt != 0 && now >= cleanupAt) {
+            cleanupAt = 0;
+            TierManager.cleanupCache(roster.keySet());
+        }
+    }
+
+    private static Member join(UUID uuid, String name) {
+        Member member = roster.get(uuid);
+        if (member == null) {
+            member = new Member(name);
+            roster.put(uuid, member);
+            arrivals.add(uuid);
+        } else {
+            member.name = name;
+        }
+        return member;
+    }
+
+    private static void leaveIfGone(UUID uuid, Member member) {
+        if (member.inWorld || member.inTab) return;
+
+        roster.remove(uuid);
+        queued.remove(uuid);
+        if (pendingFetches.remove(uuid)) {
+            TierManager.cancelFetches(uuid);
+        }
+        scheduleCleanup();
+    }
+
+    private static void scheduleCleanup() {
+        if (cleanupAt == 0) {
+            cleanupAt = System.currentTimeMillis() + CLEANUP_DELAY_MS;
+        }
+    }
+
+    private static void check(UUID uuid) {
+        if (!roster.containsKey(uuid)) return;
+
+        if (!TierManager.needsRefresh(uuid)) {
+            refreshes.add(new Refresh(TierManager.refreshDueAt(uuid), uuid));
+            return;
+        }
+        if (!pendingFetches.contains(uuid)) {
+            queued.add(uuid);
+        }
+    }
+
+    // Priorities are worked out at send time, so a player who walks closer or is looked at
+    // overtakes the ones queued before them
+    private static void dispatch() {
+        int maxFetches = ModConfig.getMaxBackgroundFetches();
+        if (queued.isEmpty() || pendingFetches.size() >= maxFetches) return;
+
+        Minecraft mc = Minecraft.getInstance();
+        while (pendingFetches.size() < maxFetches && !queued.isEmpty()) {
+            UUID next = null;
+            FetchPriority nextPriority = null;
+            double nextDistance = 0;
+            for (UUID uuid : queued) {
+                Member member = roster.get(uuid);
+                FetchPriority priority = priorityOf(mc, uuid, member);
+                double distance = distanceTo(mc.player, member);
+                int order = next == null ? -1 : priority.compareTo(nextPriority);
+                if (order < 0 || (order == 0 && distance < nextDistance)) {
+                    next = uuid;
+                    nextPriority = priority;
+                    nextDistance = distance;
+                }
+            }
+
+            queued.remove(next);
+            fetch(next, roster.get(next).name, nextPriority);
+        }
+    }
+
+    private static FetchPriority priorityOf(Minecraft mc, UUID uuid, Member member) {
+        Entity crosshair = mc.crosshairPickEntity;
+        Entity lastHit = TierTaggerCommon.getLastHitPlayer();
+        if ((crosshair != null && crosshair.getUUID().equals(uuid)) || (lastHit != null && lastHit.getUUID().equals(uuid))) {
+            return FetchPriority.TARGET;
+        }
+        return member.entity != null ? FetchPriority.NEARBY : FetchPriority.TAB;
+    }
+
+    private static double distanceTo(LocalPlayer local, Member member) {
+        if (local == null || member.entity == null) return Double.MAX_VALUE;
+        return local.distanceToSqr(member.entity);
+    }
+
+    private static void fetch(UUID uuid, String name, FetchPriority priority) {
+        pendingFetches.add(uuid);
+        FetchPriority.supplyAs(priority, () -> TierManager.fetchPlayerData(uuid, name)).whenComplete((v, ex) -> {
+            pendingFetches.remove(uuid);
+            refreshes.add(new Refresh(TierManager.refreshDueAt(uuid), uuid));
+        });
+    }
+}
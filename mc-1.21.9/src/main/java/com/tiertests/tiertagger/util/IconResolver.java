@@ -3,9 +3,10 @@ package com.tiertests.tiertagger.util;
 import com.tiertests.tiertagger.config.IconType;
 import com.tiertests.tiertagger.config.ModConfig;
 import com.tiertests.tiertagger.data.GameMode;
+import com.tiertests.tiertagger.data.ModeRegistry;
 
+import java.util.Arrays;
 import java.util.Map;
-import java.util.Set;
 
 public class IconResolver {
 
@@ -90,25 +91,19 @@ public class IconResolver {
             Map.entry("trident", 0x55AA55)
     );
 
-    private static final Set<Set<String>> ICON_ALIASES = Set.of(
-            Set.of("vanilla", "crystal"),
-            Set.of("nethpot", "nethop", "neth_pot", "netherpot")
-    );
+    private record Icons(String mcTiers, String classic, int classicColor) {}
+
+    private static volatile Icons[] resolved = new Icons[0];
 
     public static String resolve(GameMode mode) {
         if (mode == null) return "";
 
-        IconType iconType = ModConfig.getIconType();
-        String key = normalizeKey(mode);
-
-        if (iconType == IconType.MCTIERS) {
-            String icon = lookupIcon(MCTIERS_ICONS, key);
-            if (icon != null) return icon;
-            icon = lookupIcon(CLASSIC_ICONS, key);
-            if (icon != null) return icon;
-        } else {
-            String icon = lookupIcon(CLASSIC_ICONS, key);
-            if (icon != null) return icon;
+        Icons icons = iconsOf(mode);
+        if (ModConfig.getIconType() == IconType.MCTIERS && icons.mcTiers() != null) {
+            return icons.mcTiers();
+        }
+        if (icons.classic() != null) {
+            return icons.classic();
         }
 
         String modeIcon = mode.icon();
@@ -117,45 +112,36 @@ public class IconResolver {
 
     public static int getClassicColor(GameMode mode) {
         if (mode == null) return -1;
-        String key = normalizeKey(mode);
-        Integer color = CLASSIC_COLORS.get(key);
-        if (color != null) return color;
-        for (Set<String> group : ICON_ALIASES) {
-            if (group.contains(key)) {
-                for (String alias : group) {
-                    color = CLASSIC_COLORS.get(alias);
-                    if (color != null) return color;
-                }
-            }
-        }
-        return -1;
+        return iconsOf(mode).classicColor();
     }
 
     public static boolean isClassicIcon(GameMode mode) {
         if (mode == null) return false;
-        IconType iconType = ModConfig.getIconType();
-        if (iconType == IconType.CLASSIC) return true;
-        String key = normalizeKey(mode);
-        return lookupIcon(MCTIERS_ICONS, key) == null;
+        if (ModConfig.getIconType() == IconType.CLASSIC) return true;
+        return iconsOf(mode).mcTiers() == null;
     }
 
-    private static String lookupIcon(Map<String, String> iconMap, String key) {
-        String icon = iconMap.get(key);
-        if (icon != null) return icon;
-        for (Set<String> group : ICON_ALIASES) {
-            if (group.contains(key)) {
-                for (String alias : group) {
-                    icon = iconMap.get(alias);
-                    if (icon != null) return icon;
-                }
-            }
+    // Alias groups all share one icon, so the canonical key is the only lookup needed
+    private static Icons iconsOf(GameMode mode) {
+        int id = ModeRegistry.iconIdOf(mode);
+        Icons[] table = resolved;
+        if (id < table.length && table[id] != null) {
+            return table[id];
         }
-        return null;
-    }
 
-    private static String normalizeKey(GameMode mode) {
-        String key = mode.prefix();
-        if (key != null && !key.isEmpty()) return key.toLowerCase();
-        return mode.name().toLowerCase();
+        String key = ModeRegistry.keyOf(id);
+        Integer color = CLASSIC_COLORS.get(key);
+        Icons icons = new Icons(MCTIERS_ICONS.get(key), CLASSIC_ICONS.get(key), color != null ? color : -1);
+        synchronized (IconResolver.class) {
+            table = resolved;
+            if (id >= table.length) {
+                table = Arrays.copyOf(table, Math.max(id + 1, ModeRegistry.size()));
+            } else {
+                table = table.clone();
+            }
+            table[id] = icons;
+            resolved = table;
+        }
+        return icons;
     }
 }
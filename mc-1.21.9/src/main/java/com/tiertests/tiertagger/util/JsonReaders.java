@@ -0,0 +1,53 @@
+package com.tiertests.tiertagger.util;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+
+public class JsonReaders {
+    public static boolean skipNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    public static String nextStringOrNull(JsonReader reader) throws IOException {
+        return switch (reader.peek()) {
+            case STRING, NUMBER -> reader.nextString();
+            case BOOLEAN -> String.valueOf(reader.nextBoolean());
+            default -> {
+                reader.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    public static Integer nextIntOrNull(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+            return reader.nextInt();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    public static Long nextLongOrNull(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+            return reader.nextLong();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    public static boolean nextBooleanOrFalse(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.BOOLEAN) {
+            return reader.nextBoolean();
+        }
+        reader.skipValue();
+        return false;
+    }
+}
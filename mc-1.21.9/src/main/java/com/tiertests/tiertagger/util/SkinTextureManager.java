@@ -2,7 +2,10 @@ package com.tiertests.tiertagger.util;
 
 import com.mojang.blaze3d.platform.NativeImage;
 import com.tiertests.tiertagger.TierTaggerCommon;
-import com.tiertests.tiertagger.api.TierAPI;
+import com.tiertests.tiertagger.api.http.Endpoint;
+import com.tiertests.tiertagger.api.http.HttpTransport;
+import com.tiertests.tiertagger.api.http.WorkQueue;
+import com.tiertests.tiertagger.config.ModConfig;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiGraphics;
 import net.minecraft.client.renderer.RenderPipelines;
@@ -11,31 +14,32 @@ import net.minecraft.resources.Identifier;
 import org.joml.Matrix3x2fStack;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.util.Map;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class SkinTextureManager {
 
-    private static final String BASE_URL = "https://skins.mcstats.com/";
-    private static final Map<String, Identifier> cache = new ConcurrentHashMap<>();
-    private static final Map<String, int[]> dimensions = new ConcurrentHashMap<>();
+    private static final BoundedCache<String, Skin> cache =
+            new BoundedCache<>("skins", ModConfig::getSkinCacheSize, (key, skin) -> release(skin));
+    private static final BoundedCache<String, Boolean> failed =
+            new BoundedCache<>("failed-skins", ModConfig::getSkinCacheSize);
     private static final Set<String> pending = ConcurrentHashMap.newKeySet();
-    private static final Set<String> failed = ConcurrentHashMap.newKeySet();
+    private static final Metrics.CacheCounter lookups = Metrics.cache("skins");
+
+    private record Skin(Identifier location, int width, int height) {}
 
     public static void fetchBodyFront(UUID uuid) {
         String key = "body_" + noDashes(uuid);
-        fetch(BASE_URL + "body/front/" + noDashes(uuid), key);
+        fetch(Endpoint.SKINS.getBase() + "/body/front/" + noDashes(uuid), key);
     }
 
     public static void fetchSkull(String nameOrUuid) {
         String key = "skull_" + nameOrUuid.toLowerCase();
-        fetch(BASE_URL + "skull/" + nameOrUuid, key);
+        fetch(Endpoint.SKINS.getBase() + "/skull/" + nameOrUuid, key);
     }
 
     public static boolean hasBodyFront(UUID uuid) {
@@ -55,13 +59,12 @@ public class SkinTextureManager {
     }
 
     private static void render(GuiGraphics graphics, String key, int x, int y, int maxW, int maxH) {
-        Identifier loc = cache.get(key);
-        int[] dims = dimensions.get(key);
-        if (loc == null || dims == null) return;
+        Skin skin = cache.get(key);
+        if (skin == null) return;
 
-        float scale = Math.min((float) maxW / dims[0], (float) maxH / dims[1]);
-        int drawW = (int) (dims[0] * scale);
-        int drawH = (int) (dims[1] * scale);
+        float scale = Math.min((float) maxW / skin.width(), (float) maxH / skin.height());
+        int drawW = (int) (skin.width() * scale);
+        int drawH = (int) (skin.height() * scale);
         int drawX = x + (maxW - drawW) / 2;
         int drawY = y + (maxH - drawH) / 2;
 
@@ -69,68 +72,82 @@ public class SkinTextureManager {
         pose.pushMatrix();
         pose.translate(drawX, drawY);
         pose.scale(scale, scale);
-        graphics.blit(RenderPipelines.GUI_TEXTURED, loc, 0, 0, 0, 0, dims[0], dims[1], dims[0], dims[1]);
+        graphics.blit(RenderPipelines.GUI_TEXTURED, skin.location(), 0, 0, 0, 0, skin.width(), skin.height(), skin.width(), skin.height());
         pose.popMatrix();
     }
 
     private static void fetch(String url, String key) {
-        if (cache.containsKey(key) || pending.contains(key) || failed.contains(key)) return;
-        pending.add(key);
+        if (cache.containsKey(key)) {
+            lookups.record(Metrics.Outcome.HIT);
+            return;
+        }
+        if (failed.containsKey(key)) {
+            lookups.record(Metrics.Outcome.NEGATIVE);
+            return;
+        }
+        // Already on its way; counted once, when it was first asked for
+        if (!pending.add(key)) return;
+        lookups.record(Metrics.Outcome.MISS);
+
+        HttpRequest request = HttpTransport.request(url)
+                .setHeader("User-Agent", "TierTagger Minecraft Mod")
+                .header("Accept", "image/png")
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+
+        WorkQueue.of(WorkQueue.WorkClass.SKINS).submit(key, () -> HttpTransport.send(request, HttpResponse.BodyHandlers.ofByteArray())).whenComplete((response, error) -> {
+            if (error != null) {
+                TierTaggerCommon.LOGGER.warn("Failed to fetch skin: {}", error.getMessage());
+                failed.put(key, true);
+                pending.remove(key);
+                return;
+            }
+            // Shed while queued; leave it unmarked so the next render asks again
+            if (response == null) {
+                pending.remove(key);
+                return;
+            }
+
+            int code = response.statusCode();
+            if (code != 200) {
+                TierTaggerCommon.LOGGER.warn("Skin fetch returned {} for {}", code, url);
+                failed.put(key, true);
+                pending.remove(key);
+                return;
+            }
 
-        TierAPI.getExecutor().submit(() -> {
             try {
-                HttpURLConnection conn = (HttpURLConnection) new URI(url).toURL().openConnection();
-                conn.setRequestMethod("GET");
-                conn.setRequestProperty("User-Agent", "TierTagger Minecraft Mod");
-                conn.setRequestProperty("Accept", "image/png");
-                conn.setInstanceFollowRedirects(true);
-                conn.setConnectTimeout(5000);
-                conn.setReadTimeout(5000);
-
-                int code = conn.getResponseCode();
-                if (code != 200) {
-                    TierTaggerCommon.LOGGER.warn("Skin fetch returned {} for {}", code, url);
-                    failed.add(key);
+                NativeImage image = NativeImage.read(new ByteArrayInputStream(response.body()));
+                int w = image.getWidth();
+                int h = image.getHeight();
+
+                Minecraft.getInstance().execute(() -> {
+                    DynamicTexture tex = new DynamicTexture(() -> "tiertagger_" + key, image);
+                    Identifier loc = Identifier.fromNamespaceAndPath("tiertagger", "dynamic/" + key);
+                    Minecraft.getInstance().getTextureManager().register(loc, tex);
+                    cache.put(key, new Skin(loc, w, h));
                     pending.remove(key);
-                    return;
-                }
-
-                try (InputStream is = conn.getInputStream()) {
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    byte[] buf = new byte[8192];
-                    int n;
-                    while ((n = is.read(buf)) != -1) baos.write(buf, 0, n);
-                    byte[] data = baos.toByteArray();
-                    NativeImage image = NativeImage.read(new ByteArrayInputStream(data));
-                    int w = image.getWidth();
-                    int h = image.getHeight();
-
-                    Minecraft.getInstance().execute(() -> {
-                        DynamicTexture tex = new DynamicTexture(() -> "tiertagger_" + key, image);
-                        Identifier loc = Identifier.fromNamespaceAndPath("tiertagger", "dynamic/" + key);
-                        Minecraft.getInstance().getTextureManager().register(loc, tex);
-                        cache.put(key, loc);
-                        dimensions.put(key, new int[]{w, h});
-                        pending.remove(key);
-                    });
-                }
+                });
             } catch (Exception e) {
                 TierTaggerCommon.LOGGER.warn("Failed to fetch skin: {}", e.getMessage());
-                failed.add(key);
+                failed.put(key, true);
                 pending.remove(key);
             }
         });
     }
 
     public static void clearCache() {
-        cache.values().forEach(loc ->
-                Minecraft.getInstance().getTextureManager().release(loc));
         cache.clear();
-        dimensions.clear();
         pending.clear();
         failed.clear();
     }
 
+    private static void release(Skin skin) {
+        Minecraft.getInstance().execute(() ->
+                Minecraft.getInstance().getTextureManager().release(skin.location()));
+    }
+
     private static String noDashes(UUID uuid) {
         return uuid.toString().replace("-", "");
     }
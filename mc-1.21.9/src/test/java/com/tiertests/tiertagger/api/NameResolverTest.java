@@ -0,0 +1,196 @@
+package com.tiertests.tiertagger.api;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tiertests.tiertagger.api.http.Endpoint;
+import com.tiertests.tiertagger.data.NameResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Resolves names against a local stand-in for Mojang's profile lookup routes. Pending lookups
+// are shared by name across the whole resolver, and so is the Mojang rate limiter, so every test
+// uses names of its own and may wait out a backoff an earlier test caused.
+class NameResolverTest {
+    private static final String BULK = "/minecraft/profile/lookup/bulk/byname";
+    private static final String SINGLE = "/minecraft/profile/lookup/name/";
+    private static final Gson gson = new Gson();
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private final List<Long> batchTimes = new CopyOnWriteArrayList<>();
+    private final List<String> singles = new CopyOnWriteArrayList<>();
+    private volatile boolean throttleBulk = false;
+    private volatile boolean throttleSingles = false;
+    private HttpServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        Endpoint.MOJANG.setBase("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void stopServer() {
+        Endpoint.MOJANG.setBase(null);
+        server.stop(0);
+    }
+
+    @Test
+    void splitsIntoBatchesOfTen() throws Exception {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            names.add("Batched" + i);
+        }
+
+        List<NameResult> results = resolveAll(names);
+
+        for (int i = 0; i < names.size(); i++) {
+            assertEquals(uuidOf(names.get(i).toLowerCase()), results.get(i).uuid());
+        }
+        assertTrue(batches.size() >= 3, "25 names need at least 3 batches, got " + batches.size());
+        for (List<String> batch : batches) {
+            assertTrue(batch.size() <= 10, "batch of " + batch.size());
+        }
+        assertEquals(25, batches.stream().mapToInt(List::size).sum());
+        assertTrue(singles.isEmpty());
+    }
+
+    @Test
+    void unknownNamesCompleteWithNull() throws Exception {
+        List<NameResult> results = resolveAll(List.of("Known1", "Missing1", "Known2"));
+
+        assertEquals(new NameResult("known1", uuidOf("known1")), results.get(0));
+        assertNull(results.get(1));
+        assertEquals(new NameResult("known2", uuidOf("known2")), results.get(2));
+    }
+
+    @Test
+    void throttledBatchIsRetriedThenFallsBackToSingleLookups() throws Exception {
+        throttleBulk = true;
+        List<NameResult> results = resolveAll(List.of("Throttled1", "Throttled2", "Missing2"));
+
+        assertEquals(new NameResult("throttled1", uuidOf("throttled1")), results.get(0));
+        assertEquals(new NameResult("throttled2", uuidOf("throttled2")), results.get(1));
+        assertNull(results.get(2));
+        assertEquals(2, batches.size());
+        assertEquals(3, singles.size());
+        // The retry waits out the one-second Retry-After
+        long gapMs = TimeUnit.NANOSECONDS.toMillis(batchTimes.get(1) - batchTimes.get(0));
+        assertTrue(gapMs >= 900, "batch retried after " + gapMs + " ms");
+    }
+
+    @Test
+    void throttledSingleLookupsAreNotRetried() throws Exception {
+        throttleBulk = true;
+        throttleSingles = true;
+        List<NameResult> results = resolveAll(List.of("Limited1", "Limited2", "Limited3"));
+
+        for (NameResult result : results) {
+            assertNull(result);
+        }
+        assertEquals(2, batches.size());
+        assertEquals(3, singles.size());
+    }
+
+    @Test
+    void invalidNamesAreNotSent() throws Exception {
+        assertNull(NameResolver.resolve("not a name").get(5, TimeUnit.SECONDS));
+        assertTrue(batches.isEmpty());
+        assertTrue(singles.isEmpty());
+    }
+
+    private static List<NameResult> resolveAll(List<String> names) throws Exception {
+        List<CompletableFuture<NameResult>> futures = new ArrayList<>();
+        for (String name : names) {
+            futures.add(NameResolver.resolve(name));
+        }
+
+        List<NameResult> results = new ArrayList<>();
+        for (CompletableFuture<NameResult> future : futures) {
+            results.add(future.get(15, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    // Names starting with "missing" do not exist, as Mojang leaves unknown names out of a bulk reply
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.equals(BULK) && exchange.getRequestMethod().equals("POST")) {
+            String[] names;
+            try (InputStream in = exchange.getRequestBody()) {
+                names = gson.fromJson(new String(in.readAllBytes(), StandardCharsets.UTF_8), String[].class);
+            }
+            batches.add(List.of(names));
+            batchTimes.add(System.nanoTime());
+            if (throttleBulk) {
+                throttle(exchange);
+                return;
+            }
+
+            JsonArray profiles = new JsonArray();
+            for (String name : names) {
+                if (!name.startsWith("missing")) {
+                    profiles.add(profile(name));
+                }
+            }
+            respond(exchange, 200, profiles.toString());
+        } else if (path.startsWith(SINGLE) && exchange.getRequestMethod().equals("GET")) {
+            String name = path.substring(SINGLE.length());
+            singles.add(name);
+            if (throttleSingles) {
+                throttle(exchange);
+            } else if (name.startsWith("missing")) {
+                respond(exchange, 404, "{}");
+            } else {
+                respond(exchange, 200, profile(name).toString());
+            }
+        } else {
+            respond(exchange, 404, "{}");
+        }
+    }
+
+    private static JsonObject profile(String name) {
+        JsonObject profile = new JsonObject();
+        profile.addProperty("id", uuidOf(name).toString().replace("-", ""));
+        profile.addProperty("name", name);
+        return profile;
+    }
+
+    private static UUID uuidOf(String name) {
+        return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void throttle(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Retry-After", "1");
+        respond(exchange, 429, "{}");
+    }
+
+    private static void respond(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
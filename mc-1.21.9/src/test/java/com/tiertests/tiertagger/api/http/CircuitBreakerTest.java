@@ -0,0 +1,114 @@
+package com.tiertests.tiertagger.api.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final CircuitBreaker breaker = new CircuitBreaker("test", now::get);
+
+    @Test
+    void opensAfterFiveConsecutiveFailures() {
+        for (int i = 0; i < 4; i++) {
+            breaker.recordFailure();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        for (int i = 0; i < 4; i++) {
+            breaker.recordFailure();
+        }
+        breaker.recordSuccess();
+        for (int i = 0; i < 4; i++) {
+            breaker.recordFailure();
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void letsOneProbeThroughOnceOpenTimeHasPassed() {
+        open();
+        now.addAndGet(29_999);
+        assertFalse(breaker.tryAcquire());
+
+        now.addAndGet(1);
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void successfulProbeCloses() {
+        open();
+        now.addAndGet(30_000);
+        assertTrue(breaker.tryAcquire());
+
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertFalse(breaker.isOpen());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void failedProbeReopensForTwiceAsLong() {
+        open();
+        now.addAndGet(30_000);
+        assertTrue(breaker.tryAcquire());
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        now.addAndGet(59_999);
+        assertFalse(breaker.tryAcquire());
+        now.addAndGet(1);
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void openTimeIsCappedAtFiveMinutes() {
+        open();
+        long openMs = 30_000;
+        for (int i = 0; i < 6; i++) {
+            now.addAndGet(openMs);
+            assertTrue(breaker.tryAcquire());
+            breaker.recordFailure();
+            openMs = Math.min(5 * 60 * 1000, openMs * 2);
+        }
+
+        now.addAndGet(5 * 60 * 1000 - 1);
+        assertFalse(breaker.tryAcquire());
+        now.addAndGet(1);
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void cancelledProbeHandsItsTurnToTheNextRequest() {
+        open();
+        now.addAndGet(30_000);
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.recordCancelled();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    private void open() {
+        for (int i = 0; i < 5; i++) {
+            breaker.recordFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,201 @@
+package com.tiertests.tiertagger.api.impl;
+
+import com.google.gson.stream.JsonReader;
+import com.tiertests.tiertagger.data.ModeFixtures;
+import com.tiertests.tiertagger.data.PlayerData;
+import com.tiertests.tiertagger.data.Region;
+import com.tiertests.tiertagger.data.Tier;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Every recorded response parsed by the old tree-based code (TreeParsers) and by the streaming
+// readers must come out the same. lastUpdated is stamped at parse time, so it is not compared.
+class ResponseParserTest {
+    private final TierTestsSource tierTests = new TierTestsSource();
+
+    @BeforeAll
+    static void loadModes() throws IOException {
+        ModeFixtures.load();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"small", "typical", "worst"})
+    void tierTestsCurrentMatches(String size) throws IOException {
+        String body = fixture("tiertests-current-" + size);
+        TierTestsSource.CurrentTiers expected = TreeParsers.tierTestsCurrent(body);
+        TierTestsSource.CurrentTiers actual = tierTests.readCurrentTiers(reader(body));
+
+        assertNotNull(expected);
+        assertFalse(expected.playerData().isEmpty());
+        assertSameData(expected.playerData(), actual.playerData());
+        assertEquals(expected.discordId(), actual.discordId());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"small", "typical", "worst"})
+    void tierTestsHistoryMatches(String size) throws IOException {
+        String body = fixture("tiertests-history-" + size);
+        Tier expected = TreeParsers.tierTestsPeak(body);
+
+        assertNotNull(expected);
+        assertEquals(expected, tierTests.readPeakTier(reader(body)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"small", "typical", "worst"})
+    void mcTiersProfileMatches(String size) throws IOException {
+        assertRankingsProfileMatches("mctiers-profile-" + size);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"small", "typical", "worst"})
+    void subTiersProfileMatches(String size) throws IOException {
+        assertRankingsProfileMatches("subtiers-profile-" + size);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"small", "typical", "worst"})
+    void pvpTiersProfileMatches(String size) throws IOException {
+        String body = fixture("pvptiers-profile-" + size);
+        PlayerData expected = TreeParsers.pvpTiersProfile(body);
+
+        assertNotNull(expected);
+        assertFalse(expected.isEmpty());
+        assertSameData(expected, RankingsProfileReader.read(reader(body)));
+    }
+
+    @Test
+    void unknownModesAreSkipped() throws IOException {
+        String body = fixture("rankings-profile-unknown-modes");
+        PlayerData expected = TreeParsers.rankingsProfile(body);
+        PlayerData actual = RankingsProfileReader.read(reader(body));
+
+        assertEquals(1, expected.getTiers().size());
+        assertSameData(expected, actual);
+        assertSameData(TreeParsers.pvpTiersProfile(body), actual);
+
+        body = fixture("tiertests-current-unknown-modes");
+        TierTestsSource.CurrentTiers current = tierTests.readCurrentTiers(reader(body));
+        assertEquals(1, current.playerData().getTiers().size());
+        assertSameData(TreeParsers.tierTestsCurrent(body).playerData(), current.playerData());
+    }
+
+    @Test
+    void emptyProfile() throws IOException {
+        String body = fixture("rankings-profile-empty");
+        PlayerData actual = RankingsProfileReader.read(reader(body));
+
+        assertTrue(actual.isEmpty());
+        assertSameData(TreeParsers.rankingsProfile(body), actual);
+        assertSameData(TreeParsers.pvpTiersProfile(body), actual);
+    }
+
+    // The old parser treated a player with no tests as a failed lookup; the reader returns them as
+    // known and unranked
+    @Test
+    void emptyTierTestsProfile() throws IOException {
+        String body = fixture("tiertests-current-empty");
+        TierTestsSource.CurrentTiers actual = tierTests.readCurrentTiers(reader(body));
+
+        assertNull(TreeParsers.tierTestsCurrent(body));
+        assertTrue(actual.playerData().isEmpty());
+        assertNull(actual.discordId());
+    }
+
+    @Test
+    void missingOptionalFields() throws IOException {
+        String body = fixture("rankings-profile-missing-fields");
+        PlayerData actual = RankingsProfileReader.read(reader(body));
+
+        assertNull(actual.getRegion());
+        assertEquals("", actual.getBadge());
+        assertEquals(0, actual.getRank());
+        assertFalse(actual.isEmpty());
+        assertSameData(TreeParsers.rankingsProfile(body), actual);
+        assertSameData(TreeParsers.pvpTiersProfile(body), actual);
+
+        body = fixture("tiertests-current-missing-fields");
+        TierTestsSource.CurrentTiers current = tierTests.readCurrentTiers(reader(body));
+        TierTestsSource.CurrentTiers expected = TreeParsers.tierTestsCurrent(body);
+
+        assertNull(current.playerData().getRegion());
+        assertNull(current.discordId());
+        assertFalse(current.playerData().isEmpty());
+        assertSameData(expected.playerData(), current.playerData());
+        assertEquals(expected.discordId(), current.discordId());
+    }
+
+    // Where a field the old parser dereferenced is missing it threw and the whole lookup failed;
+    // the readers drop only the entry that cannot be read
+    @Test
+    void missingRequiredFields() throws IOException {
+        String body = fixture("rankings-profile-broken-ranking");
+        PlayerData actual = RankingsProfileReader.read(reader(body));
+
+        assertNull(TreeParsers.rankingsProfile(body));
+        assertNull(TreeParsers.pvpTiersProfile(body));
+        assertEquals(1, actual.getTiers().size());
+        assertEquals(new Region("NA", "NA"), actual.getRegion());
+
+        body = fixture("tiertests-current-broken-entry");
+        TierTestsSource.CurrentTiers current = tierTests.readCurrentTiers(reader(body));
+
+        assertNull(TreeParsers.tierTestsCurrent(body));
+        assertEquals(1, current.playerData().getTiers().size());
+        assertEquals(318842112645267456L, current.discordId());
+    }
+
+    // No rankings at all: the old MCTiers and SubTiers parsers returned before setting the badge
+    @Test
+    void missingRankings() throws IOException {
+        String body = fixture("rankings-profile-no-rankings");
+        PlayerData expected = TreeParsers.rankingsProfile(body);
+        PlayerData actual = RankingsProfileReader.read(reader(body));
+
+        assertNull(expected.getBadge());
+        assertEquals("Tester", actual.getBadge());
+        assertTrue(actual.isEmpty());
+        assertEquals(expected.getRegion(), actual.getRegion());
+        assertSameData(TreeParsers.pvpTiersProfile(body), actual);
+    }
+
+    private static void assertRankingsProfileMatches(String name) throws IOException {
+        String body = fixture(name);
+        PlayerData expected = TreeParsers.rankingsProfile(body);
+
+        assertNotNull(expected);
+        assertFalse(expected.isEmpty());
+        assertSameData(expected, RankingsProfileReader.read(reader(body)));
+    }
+
+    private static void assertSameData(PlayerData expected, PlayerData actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getTiers(), actual.getTiers());
+        assertEquals(expected.getPeakTiers(), actual.getPeakTiers());
+        assertEquals(expected.getRegion(), actual.getRegion());
+        assertEquals(expected.getBadge(), actual.getBadge());
+        assertEquals(expected.getRank(), actual.getRank());
+        assertEquals(expected.getPoints(), actual.getPoints());
+    }
+
+    private static JsonReader reader(String body) {
+        return new JsonReader(new StringReader(body));
+    }
+
+    // Recorded responses are shared with the jmh benchmarks; edge cases live with the tests
+    private static String fixture(String name) throws IOException {
+        try (InputStream in = ResponseParserTest.class.getResourceAsStream("/responses/" + name + ".json")) {
+            if (in == null) throw new IllegalStateException("Missing fixture " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.tiertests.tiertagger.api.impl;
+
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.tiertests.tiertagger.data.GameMode;
+import com.tiertests.tiertagger.data.GameModeManager;
+import com.tiertests.tiertagger.data.PlayerData;
+import com.tiertests.tiertagger.data.Region;
+import com.tiertests.tiertagger.data.Tier;
+import com.tiertests.tiertagger.util.StringUtils;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+
+// The tree-based parsing each source did before the streaming readers: the whole body parsed
+// into a JsonObject, rankings bound into a Map of JsonElements, then read into PlayerData.
+// Kept as the reference the streaming readers are checked against. A failure returns null,
+// as the old sources did from their catch blocks.
+class TreeParsers {
+    private static final Gson gson = new Gson();
+    private static final Type modesType = new TypeToken<Map<String, Map<String, JsonElement>>>() {
+    }.getType();
+
+    static TierTestsSource.CurrentTiers tierTestsCurrent(String data) {
+        try {
+            PlayerData.Builder playerData = PlayerData.builder();
+            JsonObject response = JsonParser.parseString(data).getAsJsonObject();
+            if (response.isJsonNull() || !response.get("success").getAsBoolean())
+                return null;
+            JsonArray dataObj = response.getAsJsonArray("data");
+            if (dataObj == null || dataObj.isEmpty()) return null;
+            JsonObject firstEntry = dataObj.get(0).getAsJsonObject();
+            JsonObject userObj = firstEntry.getAsJsonObject("user");
+            JsonElement regionElement = userObj != null ? userObj.get("region") : null;
+            if (regionElement != null && !regionElement.isJsonNull()) {
+                String regionStr = regionElement.getAsString();
+                playerData.region(new Region(regionStr, regionStr));
+            }
+
+            for (JsonElement element : dataObj.asList()) {
+                JsonObject obj = element.getAsJsonObject();
+                if (!obj.get("gamemode").getAsJsonObject().get("version").getAsString().equalsIgnoreCase("MODERN"))
+                    continue;
+                String gameModeStr = obj.get("gamemode").getAsJsonObject().get("name").getAsString();
+                String tierStr = obj.get("tier").getAsString();
+                GameMode mode = GameModeManager.getFromName(gameModeStr);
+                Tier tier = Tier.fromString(tierStr);
+                if (mode == null || tier == null)
+                    continue;
+                playerData.addTier(mode, tier);
+            }
+
+            JsonObject badge = firstEntry.getAsJsonObject("badge");
+            if (badge != null) {
+                String badgeColor = badge.get("legacyColor").getAsString();
+                String badgeEmoji = badge.get("emoji").getAsString();
+                badgeColor = StringUtils.sanitize(badgeColor);
+                String colorized = "";
+                if (!badgeColor.isBlank()) {
+                    colorized = "&" + badgeColor;
+                    colorized = colorized
+                            .replace("§§", "§")
+                            .replace("&&", "&");
+                    colorized = StringUtils.colorize(colorized);
+                }
+                badgeEmoji = StringUtils.sanitize(badgeEmoji);
+                playerData.badge(colorized + badgeEmoji);
+            }
+
+            JsonObject rank = firstEntry.getAsJsonObject("rankModern");
+            if (rank != null) {
+                playerData.rank(rank.get("rank").getAsInt());
+                playerData.points(rank.get("points").getAsInt());
+            }
+
+            Long discordId = null;
+            JsonElement userElement = firstEntry.get("user");
+            if (userElement != null && !userElement.isJsonNull()) {
+                JsonElement discordIdEl = userElement.getAsJsonObject().get("discordId");
+                if (discordIdEl != null && !discordIdEl.isJsonNull()) {
+                    discordId = discordIdEl.getAsLong();
+                }
+            }
+            return new TierTestsSource.CurrentTiers(playerData.lastUpdated(System.currentTimeMillis()).build(), discordId);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    static Tier tierTestsPeak(String historyData) {
+        try {
+            JsonObject historyResponse = JsonParser.parseString(historyData).getAsJsonObject();
+            if (historyResponse.isJsonNull() || !historyResponse.get("success").getAsBoolean()) return null;
+
+            JsonArray historyArray = historyResponse.getAsJsonArray("data");
+            if (historyArray == null || historyArray.isEmpty()) return null;
+
+            Tier peak = null;
+            for (JsonElement el : historyArray) {
+                JsonObject audit = el.getAsJsonObject();
+                Tier tier = Tier.fromString(audit.get("tier").getAsString());
+                if (tier == null) continue;
+                if (peak == null || tier.ordinal() < peak.ordinal()) {
+                    peak = tier;
+                }
+            }
+            return peak;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // MCTiers and SubTiers
+    static PlayerData rankingsProfile(String data) {
+        try {
+            PlayerData.Builder playerData = PlayerData.builder();
+            JsonObject dataObj = JsonParser.parseString(data).getAsJsonObject();
+
+            JsonElement regionEl = dataObj.get("region");
+            if (regionEl != null && !regionEl.isJsonNull()) {
+                String regionStr = regionEl.getAsString();
+                playerData.region(new Region(regionStr, regionStr));
+            }
+
+            JsonElement rankingsEl = dataObj.get("rankings");
+            if (rankingsEl == null || rankingsEl.isJsonNull()) return playerData.build();
+            addRankings(rankingsEl.getAsJsonObject(), playerData);
+
+            JsonArray badge = dataObj.getAsJsonArray("badges");
+            if (badge != null && !badge.isEmpty()) {
+                JsonObject badgeObj = badge.get(0).getAsJsonObject();
+                playerData.badge(StringUtils.sanitize(badgeObj.get("title").getAsString()));
+            } else {
+                playerData.badge("");
+            }
+
+            JsonElement ranking = dataObj.get("overall");
+            if (ranking != null && !ranking.isJsonNull()) {
+                playerData.rank(ranking.getAsInt());
+                JsonElement pointsEl = dataObj.get("points");
+                if (pointsEl != null && !pointsEl.isJsonNull()) {
+                    playerData.points(pointsEl.getAsInt());
+                }
+            }
+
+            return playerData.lastUpdated(System.currentTimeMillis()).build();
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    static PlayerData pvpTiersProfile(String data) {
+        try {
+            PlayerData.Builder playerData = PlayerData.builder();
+            JsonObject dataObj = JsonParser.parseString(data).getAsJsonObject();
+
+            if (dataObj.has("region") && !dataObj.get("region").isJsonNull()) {
+                String regionStr = dataObj.get("region").getAsString();
+                playerData.region(new Region(regionStr, regionStr));
+            }
+
+            if (dataObj.has("rankings")) {
+                addRankings(dataObj.get("rankings").getAsJsonObject(), playerData);
+            }
+
+            JsonArray badge = dataObj.has("badges") ? dataObj.getAsJsonArray("badges") : null;
+            if (badge != null && !badge.isEmpty()) {
+                JsonObject badgeObj = badge.get(0).getAsJsonObject();
+                playerData.badge(StringUtils.sanitize(badgeObj.get("title").getAsString()));
+            } else {
+                playerData.badge("");
+            }
+
+            if (dataObj.has("overall") && !dataObj.get("overall").isJsonNull()) {
+                playerData.rank(dataObj.get("overall").getAsInt());
+                if (dataObj.has("points")) {
+                    playerData.points(dataObj.get("points").getAsInt());
+                }
+            }
+
+            return playerData.lastUpdated(System.currentTimeMillis()).build();
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private static void addRankings(JsonObject rankingsObj, PlayerData.Builder playerData) {
+        Map<String, Map<String, JsonElement>> rankings = gson.fromJson(rankingsObj, modesType);
+        if (rankings == null) return;
+
+        for (Map.Entry<String, Map<String, JsonElement>> rank : rankings.entrySet()) {
+            Map<String, JsonElement> obj = rank.getValue();
+            String tierStr = (obj.get("pos").getAsInt() == 1 ? "L" : "H") + "T" + obj.get("tier").getAsInt();
+
+            GameMode mode = GameModeManager.getFromName(rank.getKey());
+            Tier tier = Tier.fromString(tierStr);
+            if (mode == null || tier == null)
+                continue;
+
+            playerData.addTier(mode, tier);
+        }
+    }
+}
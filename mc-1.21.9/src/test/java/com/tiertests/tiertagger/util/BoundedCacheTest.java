@@ -0,0 +1,161 @@
+package com.tiertests.tiertagger.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    @Test
+    void evictsOldestProbationEntryFirst() {
+        List<Integer> removed = new ArrayList<>();
+        BoundedCache<Integer, String> cache = new BoundedCache<>("test", () -> 3, (k, v) -> removed.add(k));
+
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, "v" + i);
+        }
+
+        assertEquals(3, cache.size());
+        assertEquals(List.of(0, 1), removed);
+        assertEquals(2, cache.getStats().evictions());
+    }
+
+    @Test
+    void secondHitProtectsEntryFromOneOffBurst() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>("test", () -> 10);
+        cache.put(-1, "hot");
+        cache.get(-1);
+        cache.cleanUp();
+
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, "v" + i);
+        }
+
+        assertEquals("hot", cache.get(-1));
+        assertEquals(10, cache.size());
+    }
+
+    @Test
+    void protectedOverflowIsDemotedNotEvicted() {
+        // Protected holds 80% of 5, so promoting a fifth entry demotes the least recent one
+        BoundedCache<Integer, String> cache = new BoundedCache<>("test", () -> 5);
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, "v" + i);
+            cache.get(i);
+        }
+        cache.cleanUp();
+        assertEquals(5, cache.size());
+
+        // Entry 0 was demoted to probation, so it goes before any protected entry
+        cache.put(5, "v5");
+        assertNull(cache.get(0));
+        for (int i = 1; i < 5; i++) {
+            assertNotNull(cache.get(i));
+        }
+    }
+
+    @Test
+    void hitsAreReplayedWithoutExplicitCleanUp() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>("test", () -> 10);
+        cache.put(-1, "hot");
+        cache.get(-1);
+
+        // The next write drains the buffered hit before it evicts anything
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, "v" + i);
+        }
+        assertEquals("hot", cache.get(-1));
+    }
+
+    @Test
+    void removedEntryIsNotRevivedByBufferedHit() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>("test", () -> 10);
+        cache.put(1, "v1");
+        cache.get(1);
+        cache.remove(1);
+        cache.cleanUp();
+
+        assertFalse(cache.containsKey(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void replaceOnlySwapsExpectedValue() {
+        List<String> removed = new ArrayList<>();
+        BoundedCache<Integer, String> cache = new BoundedCache<>("test", () -> 10, (k, v) -> removed.add(v));
+        String first = "first";
+        cache.put(1, first);
+
+        assertFalse(cache.replace(1, "other", "second"));
+        assertTrue(cache.replace(1, first, "second"));
+        assertFalse(cache.replace(2, null, "absent"));
+        assertEquals("second", cache.get(1));
+        assertTrue(removed.isEmpty());
+    }
+
+    @Test
+    void computeRemovesOnNull() {
+        List<String> removed = new ArrayList<>();
+        BoundedCache<Integer, String> cache = new BoundedCache<>("test", () -> 10, (k, v) -> removed.add(v));
+
+        assertEquals("a", cache.compute(1, (k, v) -> v == null ? "a" : v + "b"));
+        assertEquals("ab", cache.compute(1, (k, v) -> v == null ? "a" : v + "b"));
+        assertNull(cache.compute(1, (k, v) -> null));
+        assertFalse(cache.containsKey(1));
+        assertEquals(List.of("ab"), removed);
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>("test", () -> 10);
+        cache.put(1, "v1");
+        cache.get(1);
+        cache.get(1);
+        cache.get(2);
+
+        BoundedCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.hits());
+        assertEquals(1, stats.misses());
+    }
+
+    @Test
+    void concurrentReadsAndWritesStayWithinCapacity() throws Exception {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>("test", () -> 64);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 20_000; i++) {
+                    int key = (i * 31 + seed) % 200;
+                    if (i % 4 == 0) {
+                        cache.put(key, key);
+                    } else {
+                        Integer value = cache.get(key);
+                        if (value != null) assertEquals(key, value);
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        cache.cleanUp();
+
+        assertTrue(cache.size() <= 64, "size " + cache.size());
+    }
+}
@@ -0,0 +1,80 @@
+package com.tiertests.tiertagger.bench;
+
+import com.tiertests.tiertagger.api.http.Endpoint;
+import com.tiertests.tiertagger.api.http.HttpTransport;
+import com.tiertests.tiertagger.api.http.RequestPermits;
+import com.tiertests.tiertagger.config.ExecutorMode;
+import com.tiertests.tiertagger.config.ModConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Wall time for the peak-tier history requests a 150 player join sends, one per mode per
+// player, against MockTierApi answering each after a fixed latency
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ExecutorModeBenchmark {
+    private static final int PLAYERS = 150;
+    private static final int MODES = 8;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ExecutorMode mode;
+
+    @Param({"25"})
+    public int latencyMs;
+
+    private MockTierApi api;
+    private String base;
+    private RequestPermits permits;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        api = new MockTierApi(new MockTierApi.Settings(latencyMs, 0, 0, 0, 0));
+        base = api.baseFor(Endpoint.TIER_TESTS);
+
+        ModConfig.setExecutorMode(mode);
+        permits = new RequestPermits();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        api.close();
+        ModConfig.setExecutorMode(ExecutorMode.PLATFORM);
+    }
+
+    @Benchmark
+    public int lobbyPeakTiers() {
+        CompletableFuture<?>[] requests = new CompletableFuture[PLAYERS * MODES];
+        for (int player = 0; player < PLAYERS; player++) {
+            for (int mode = 0; mode < MODES; mode++) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/tiers/history/" + player + "/mode" + mode))
+                        .GET()
+                        .build();
+                requests[player * MODES + mode] = HttpTransport.send(request, HttpResponse.BodyHandlers.ofString(), permits);
+            }
+        }
+        CompletableFuture.allOf(requests).join();
+        return requests.length;
+    }
+}
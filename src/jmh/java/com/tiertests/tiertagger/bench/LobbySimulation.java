@@ -0,0 +1,173 @@
+package com.tiertests.tiertagger.bench;
+
+import com.tiertests.tiertagger.api.TierSourceFactory;
+import com.tiertests.tiertagger.api.http.RateLimiter;
+import com.tiertests.tiertagger.api.http.WorkQueue;
+import com.tiertests.tiertagger.config.ModConfig;
+import com.tiertests.tiertagger.data.GameModeManager;
+import com.tiertests.tiertagger.data.PlayerData;
+import com.tiertests.tiertagger.manager.TierManager;
+import com.tiertests.tiertagger.util.BoundedCache;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Joins a lobby of players through TierManager against MockTierApi and reports what the fetch
+// pipeline sent and how long each player waited for a tag. Runs headless, without a game, so
+// the roster's dispatch window is reproduced here rather than driven by client ticks:
+//   ./gradlew loadTest -Pplayers=500 -PlatencyMs=40 -PerrorRate=0.02 -PthrottleRate=0.01
+public class LobbySimulation {
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int players = Integer.parseInt(options.getOrDefault("players", "500"));
+        long joinIntervalMs = Long.parseLong(options.getOrDefault("joinIntervalMs", "2"));
+        MockTierApi.Settings defaults = MockTierApi.Settings.defaults();
+        MockTierApi.Settings settings = new MockTierApi.Settings(
+                Long.parseLong(options.getOrDefault("latencyMs", Long.toString(defaults.latencyMs()))),
+                Long.parseLong(options.getOrDefault("jitterMs", Long.toString(defaults.jitterMs()))),
+                Double.parseDouble(options.getOrDefault("errorRate", Double.toString(defaults.errorRate()))),
+                Double.parseDouble(options.getOrDefault("throttleRate", Double.toString(defaults.throttleRate()))),
+                Double.parseDouble(options.getOrDefault("unrankedRate", Double.toString(defaults.unrankedRate()))));
+        // Given once, a rate applies to every source; otherwise each keeps its own default
+        for (TierSourceFactory.TierSources source : TierSourceFactory.TierSources.values()) {
+            if (options.containsKey("requestsPerSecond")) {
+                ModConfig.setRequestsPerSecond(source, Integer.parseInt(options.get("requestsPerSecond")));
+            }
+            if (options.containsKey("requestBurst")) {
+                ModConfig.setRequestBurst(source, Integer.parseInt(options.get("requestBurst")));
+            }
+        }
+        if (options.containsKey("maxBackgroundFetches")) {
+            ModConfig.setMaxBackgroundFetches(Integer.parseInt(options.get("maxBackgroundFetches")));
+        }
+
+        try (MockTierApi api = new MockTierApi(settings)) {
+            api.install();
+            TierSourceFactory.init();
+            GameModeManager.updateModes().join();
+            long setupRequests = api.getTotalRequests();
+
+            String[] names = new String[players];
+            UUID[] uuids = new UUID[players];
+            for (int i = 0; i < players; i++) {
+                names[i] = "Player" + i;
+                uuids[i] = MockTierApi.uuidOf(names[i]);
+            }
+
+            long[] joinedAt = new long[players];
+            long[] timeToTag = new long[players];
+            CompletableFuture<?>[] tags = new CompletableFuture[players];
+            Semaphore window = new Semaphore(ModConfig.getMaxBackgroundFetches());
+            long start = System.nanoTime();
+            Thread joins = Thread.ofVirtual().start(() -> {
+                for (int i = 0; i < players; i++) {
+                    joinedAt[i] = System.nanoTime();
+                    sleep(joinIntervalMs);
+                }
+            });
+            for (int i = 0; i < players; i++) {
+                int player = i;
+                while (joinedAt[player] == 0) {
+                    Thread.onSpinWait();
+                }
+                window.acquire();
+                tags[i] = TierManager.fetchPlayerData(uuids[i], names[i]).whenComplete((v, ex) -> {
+                    timeToTag[player] = System.nanoTime() - joinedAt[player];
+                    window.release();
+                });
+            }
+            CompletableFuture.allOf(tags).join();
+            joins.join();
+            long lobbyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            // Peak tiers and badges are still arriving after the tags resolve
+            awaitQuiet(api);
+            long lobbyRequests = api.getTotalRequests() - setupRequests;
+
+            // The same lobby again, as after a world change: every tag should come from memory
+            long before = api.getTotalRequests();
+            int rejoinHits = 0;
+            for (int i = 0; i < players; i++) {
+                if (TierManager.getPlayerData(uuids[i]) != null || TierManager.isKnownUnranked(ModConfig.getTierSource(), uuids[i])) {
+                    rejoinHits++;
+                }
+                TierManager.loadPlayerData(ModConfig.getTierSource(), uuids[i], names[i]).join();
+            }
+            awaitQuiet(api);
+            long rejoinRequests = api.getTotalRequests() - before;
+
+            int ranked = 0;
+            for (UUID uuid : uuids) {
+                PlayerData data = TierManager.getPlayerData(uuid);
+                if (data != null && !data.isEmpty()) ranked++;
+            }
+
+            Arrays.sort(timeToTag);
+            System.out.printf("Lobby: %d players (%d ranked) tagged in %d ms%n", players, ranked, lobbyMs);
+            System.out.printf("Time to tag: p50 %d ms, p99 %d ms, max %d ms%n",
+                    millis(percentile(timeToTag, 0.50)), millis(percentile(timeToTag, 0.99)), millis(timeToTag[players - 1]));
+            System.out.printf("Requests: %d for the lobby, %d for mode lists, %d on rejoin (%d errors, %d throttled)%n",
+                    lobbyRequests, setupRequests, rejoinRequests, api.getErrors(), api.getThrottled());
+            api.getRequestCounts().forEach((route, count) -> System.out.printf("  %-32s %6d%n", route, count));
+            System.out.printf("Rejoin cache hits: %d/%d (%.1f%%)%n", rejoinHits, players, 100.0 * rejoinHits / players);
+            System.out.println("Caches:");
+            for (BoundedCache.Stats stats : BoundedCache.getAllStats()) {
+                System.out.printf("  %-16s size %5d  hits %7d  misses %7d  hit rate %5.1f%%%n",
+                        stats.name(), stats.size(), stats.hits(), stats.misses(), stats.hitRate() * 100);
+            }
+            System.out.println("Work queues:");
+            for (WorkQueue.Stats stats : WorkQueue.getAllStats()) {
+                System.out.printf("  %-16s submitted %6d  coalesced %6d  dropped %6d  peak depth %4d%n",
+                        stats.name(), stats.submitted(), stats.coalesced(), stats.dropped(), stats.peakDepth());
+            }
+            System.out.println("Rate limiters:");
+            for (RateLimiter.State state : RateLimiter.getAllStates()) {
+                System.out.printf("  %-16s throttled responses %d%n", state.name(), state.throttledResponses());
+            }
+        }
+        // The fetch executors are not daemon threads
+        System.exit(0);
+    }
+
+    private static void awaitQuiet(MockTierApi api) {
+        long last = -1;
+        while (api.getTotalRequests() != last) {
+            last = api.getTotalRequests();
+            sleep(1000);
+        }
+    }
+
+    private static void sleep(long ms) {
+        if (ms <= 0) return;
+
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (arg.startsWith("--") && eq > 2) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
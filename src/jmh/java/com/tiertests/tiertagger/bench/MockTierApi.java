@@ -0,0 +1,298 @@
+package com.tiertests.tiertagger.bench;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tiertests.tiertagger.api.TierSourceFactory;
+import com.tiertests.tiertagger.api.http.Endpoint;
+import com.tiertests.tiertagger.data.GameModeManager;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Loopback stand-in for every host in Endpoint, answering from the fixtures in
+// src/jmh/resources/mock. Whether a player is ranked follows from their UUID, so repeated
+// runs see the same lobby.
+public class MockTierApi implements Closeable {
+    private static final Gson gson = new Gson();
+
+    public record Settings(long latencyMs, long jitterMs, double errorRate, double throttleRate, double unrankedRate) {
+        public static Settings defaults() {
+            return new Settings(40, 20, 0, 0, 0.3);
+        }
+    }
+
+    private final Settings settings;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, AtomicLong> requests = new ConcurrentHashMap<>();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+
+    private final String tierTestsModes = fixture("tiertests-gamemodes.json");
+    private final String tierTestsCurrent = fixture("tiertests-current.json");
+    private final String tierTestsUnranked = fixture("tiertests-unranked.json");
+    private final String tierTestsHistory = fixture("tiertests-history.json");
+    private final String rankingsModes = fixture("rankings-modes.json");
+    private final String subTiersModes = fixture("subtiers-modes.json");
+    private final String rankingsProfile = fixture("rankings-profile.json");
+    private final byte[] skin = skin();
+
+    public MockTierApi(Settings settings) throws IOException {
+        this.settings = settings;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        for (Endpoint endpoint : Endpoint.values()) {
+            server.createContext("/" + endpoint.getKey() + "/", exchange -> {
+                try (exchange) {
+                    handle(endpoint, exchange);
+                }
+            });
+        }
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    // Offline-mode UUIDs, so the name and UUID lookups agree without a shared table
+    public static UUID uuidOf(String name) {
+        return UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Fills GameModeManager with every source's mode list, as the game has after joining a server
+    public static void loadModes() throws IOException {
+        if (GameModeManager.getGameModeSize() > 0) return;
+
+        try (MockTierApi api = new MockTierApi(new Settings(0, 0, 0, 0, 0))) {
+            api.install();
+            TierSourceFactory.init();
+            GameModeManager.updateModes().join();
+            for (TierSourceFactory.TierSources source : TierSourceFactory.TierSources.values()) {
+                GameModeManager.loadModesForSource(source).join();
+            }
+        }
+    }
+
+    public String baseFor(Endpoint endpoint) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/" + endpoint.getKey();
+    }
+
+    public void install() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            endpoint.setBase(baseFor(endpoint));
+        }
+    }
+
+    public boolean isRanked(UUID uuid) {
+        return Math.floorMod(uuid.hashCode(), 1000) >= settings.unrankedRate() * 1000;
+    }
+
+    public Map<String, Long> getRequestCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        requests.forEach((route, count) -> counts.put(route, count.get()));
+        return counts;
+    }
+
+    public long getTotalRequests() {
+        return requests.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public long getThrottled() {
+        return throttled.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        for (Endpoint endpoint : Endpoint.values()) {
+            endpoint.setBase(null);
+        }
+    }
+
+    private void handle(Endpoint endpoint, HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring(endpoint.getKey().length() + 1);
+        String[] parts = path.substring(1).split("/");
+        // Ids are left out so counts group by route; TierTests routes differ in the second segment
+        count(endpoint.getKey() + " /" + parts[0] + (endpoint == Endpoint.TIER_TESTS && parts.length > 1 ? "/" + parts[1] : ""));
+
+        delay();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < settings.throttleRate()) {
+            throttled.incrementAndGet();
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            respond(exchange, 429, "application/json", "{}");
+            return;
+        }
+        if (random.nextDouble() < settings.errorRate()) {
+            errors.incrementAndGet();
+            respond(exchange, 500, "application/json", "{}");
+            return;
+        }
+
+        switch (endpoint) {
+            case TIER_TESTS -> tierTests(exchange, path);
+            case MC_TIERS -> rankings(exchange, path, rankingsModes);
+            case SUB_TIERS -> rankings(exchange, path, subTiersModes);
+            case PVP_TIERS -> {
+                if (path.startsWith("/search_profile/")) {
+                    String name = path.substring("/search_profile/".length());
+                    profile(exchange, uuidOf(name), name);
+                } else {
+                    respond(exchange, 404, "application/json", "{}");
+                }
+            }
+            case MOJANG -> {
+                if (path.startsWith("/minecraft/profile/lookup/name/")) {
+                    respond(exchange, 200, "application/json", nameProfile(path.substring("/minecraft/profile/lookup/name/".length())).toString());
+                } else {
+                    names(exchange);
+                }
+            }
+            case SKINS -> respond(exchange, 200, "image/png", skin);
+        }
+    }
+
+    private void tierTests(HttpExchange exchange, String path) throws IOException {
+        if (path.equals("/gamemodes/modern")) {
+            respond(exchange, 200, "application/json", tierTestsModes);
+        } else if (path.equals("/tiers/current/all")) {
+            UUID uuid = UUID.fromString(query(exchange, "minecraftUuid"));
+            String body = isRanked(uuid)
+                    ? tierTestsCurrent.replace("{discordId}", Long.toString(uuid.getMostSignificantBits() >>> 8))
+                    : tierTestsUnranked;
+            respond(exchange, 200, "application/json", body);
+        } else if (path.startsWith("/tiers/history/")) {
+            respond(exchange, 200, "application/json", tierTestsHistory);
+        } else if (path.equals("/config/modern.guild_invite")) {
+            respond(exchange, 200, "application/json", "{\"url\":\"https://discord.gg/tiertests\"}");
+        } else {
+            respond(exchange, 404, "application/json", "{}");
+        }
+    }
+
+    private void rankings(HttpExchange exchange, String path, String modes) throws IOException {
+        if (path.equals("/mode/list")) {
+            respond(exchange, 200, "application/json", modes);
+        } else if (path.startsWith("/profile/")) {
+            profile(exchange, UUID.fromString(path.substring("/profile/".length())), "Player");
+        } else {
+            respond(exchange, 404, "application/json", "{}");
+        }
+    }
+
+    private void profile(HttpExchange exchange, UUID uuid, String name) throws IOException {
+        if (!isRanked(uuid)) {
+            respond(exchange, 404, "application/json", "{}");
+            return;
+        }
+        respond(exchange, 200, "application/json", rankingsProfile.replace("{uuid}", uuid.toString()).replace("{name}", name));
+    }
+
+    private void names(HttpExchange exchange) throws IOException {
+        String[] names;
+        try (InputStream in = exchange.getRequestBody()) {
+            names = gson.fromJson(new String(in.readAllBytes(), StandardCharsets.UTF_8), String[].class);
+        }
+
+        JsonArray profiles = new JsonArray();
+        for (String name : names) {
+            profiles.add(nameProfile(name));
+        }
+        respond(exchange, 200, "application/json", profiles.toString());
+    }
+
+    private static JsonObject nameProfile(String name) {
+        JsonObject profile = new JsonObject();
+        profile.addProperty("id", uuidOf(name).toString().replace("-", ""));
+        profile.addProperty("name", name);
+        return profile;
+    }
+
+    private void count(String route) {
+        requests.computeIfAbsent(route, r -> new AtomicLong()).incrementAndGet();
+    }
+
+    private void delay() {
+        long delay = settings.latencyMs() + (settings.jitterMs() > 0 ? ThreadLocalRandom.current().nextLong(settings.jitterMs() + 1) : 0);
+        if (delay <= 0) return;
+
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String query(HttpExchange exchange, String key) {
+        String query = exchange.getRequestURI().getQuery();
+        if (query == null) return "";
+
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(key)) {
+                return pair.substring(eq + 1);
+            }
+        }
+        return "";
+    }
+
+    private static void respond(HttpExchange exchange, int code, String contentType, String body) throws IOException {
+        respond(exchange, code, contentType, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void respond(HttpExchange exchange, int code, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(code, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String fixture(String name) {
+        try (InputStream in = MockTierApi.class.getResourceAsStream("/mock/" + name)) {
+            if (in == null) throw new IllegalStateException("Missing fixture " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] skin() {
+        BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                image.setRGB(x, y, 0xFF000000 | (x * 32) << 16 | (y * 32) << 8);
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
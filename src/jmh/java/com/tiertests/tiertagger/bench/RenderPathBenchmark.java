@@ -0,0 +1,127 @@
+package com.tiertests.tiertagger.bench;
+
+import com.tiertests.tiertagger.api.TierSourceFactory;
+import com.tiertests.tiertagger.config.DisplayMode;
+import com.tiertests.tiertagger.config.ModConfig;
+import com.tiertests.tiertagger.data.GameMode;
+import com.tiertests.tiertagger.data.GameModeManager;
+import com.tiertests.tiertagger.data.PlayerData;
+import com.tiertests.tiertagger.data.Region;
+import com.tiertests.tiertagger.data.Tier;
+import com.tiertests.tiertagger.manager.TierManager;
+import com.tiertests.tiertagger.util.TierTagUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// One frame of tag building: every cached player's nametag or tab entry built from scratch, as
+// after a config change invalidates the tag caches. Run with the gc profiler for bytes per frame.
+// A quarter of each player's modes are left unranked so the fallback and cross-source paths
+// are taken as well as the direct hit.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderPathBenchmark {
+    private static final Tier[] TIERS = Tier.values();
+    private static final Region[] REGIONS = {new Region("North America", "NA"), new Region("Europe", "EU"), new Region("Asia", "AS")};
+    private static final TierSourceFactory.TierSources CROSS_SOURCE = TierSourceFactory.TierSources.MC_TIERS;
+
+    @Param
+    public DisplayMode displayMode;
+
+    @Param({"1", "100", "1000"})
+    public int players;
+
+    private UUID[] uuids;
+    private PlayerData[] data;
+
+    @Setup
+    public void setup() throws IOException {
+        MockTierApi.loadModes();
+        TierManager.clearCache();
+        ModConfig.setTierDisplayMode(displayMode);
+
+        GameMode[] selected = new GameMode[GameModeManager.getGameModeSize()];
+        for (int i = 0; i < selected.length; i++) {
+            selected[i] = GameModeManager.getFromInt(i);
+        }
+        List<GameMode> crossModes = new ArrayList<>();
+        for (GameMode mode : selected) {
+            GameMode other = GameModeManager.getFromNameForSource(mode.name(), CROSS_SOURCE);
+            if (other != null) crossModes.add(other);
+        }
+        GameMode[] cross = crossModes.toArray(new GameMode[0]);
+
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        uuids = new UUID[players];
+        data = new PlayerData[players];
+        for (int p = 0; p < players; p++) {
+            uuids[p] = new UUID(random.nextLong(), random.nextLong());
+            data[p] = player(random, selected, now)
+                    .region(REGIONS[p % REGIONS.length])
+                    .badge(p % 5 == 0 ? "\u2605" : null)
+                    .rank(p + 1)
+                    .build();
+            TierManager.cachePlayerData(uuids[p], data[p]);
+            TierManager.cachePlayerData(CROSS_SOURCE, uuids[p], player(random, cross, now).build());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        TierManager.clearCache();
+        ModConfig.setTierDisplayMode(DisplayMode.HIGHEST_FALLBACK);
+    }
+
+    @Benchmark
+    public void buildTagComponent(Blackhole blackhole) {
+        for (UUID uuid : uuids) {
+            blackhole.consume(TierTagUtil.buildTagComponent(uuid));
+        }
+    }
+
+    @Benchmark
+    public void buildTabComponent(Blackhole blackhole) {
+        for (UUID uuid : uuids) {
+            blackhole.consume(TierTagUtil.buildTabComponent(uuid));
+        }
+    }
+
+    @Benchmark
+    public void getHighestTier(Blackhole blackhole) {
+        for (PlayerData player : data) {
+            blackhole.consume(player.getHighestTier());
+            blackhole.consume(player.getHighestTierGamemode());
+        }
+    }
+
+    private static PlayerData.Builder player(Random random, GameMode[] modes, long now) {
+        PlayerData.Builder builder = PlayerData.builder().lastUpdated(now);
+        for (GameMode mode : modes) {
+            if (random.nextInt(4) == 0) continue;
+            builder.addTier(mode, TIERS[random.nextInt(TIERS.length)]);
+        }
+        return builder;
+    }
+}
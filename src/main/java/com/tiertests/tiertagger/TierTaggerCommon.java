@@ -3,30 +3,29 @@ package com.tiertests.tiertagger;
 import com.mojang.blaze3d.platform.InputConstants;
 import com.tiertests.tiertagger.api.TierAPI;
 import com.tiertests.tiertagger.api.TierSourceFactory;
+import com.tiertests.tiertagger.config.ModConfig;
 import com.tiertests.tiertagger.config.ModConfigLoader;
 import com.tiertests.tiertagger.data.GameModeManager;
-import com.tiertests.tiertagger.manager.TierManager;
+import com.tiertests.tiertagger.manager.PlayerDataStore;
+import com.tiertests.tiertagger.manager.RosterTracker;
 import com.tiertests.tiertagger.hud.LookupHud;
+import com.tiertests.tiertagger.hud.MetricsHud;
 import com.tiertests.tiertagger.menu.ConfigScreen;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientEntityEvents;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
 import net.fabricmc.loader.api.FabricLoader;
 import lombok.Getter;
 import net.minecraft.client.KeyMapping;
-import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.client.player.AbstractClientPlayer;
-import net.minecraft.client.player.LocalPlayer;
 import net.minecraft.world.entity.player.Player;
-import net.minecraft.world.level.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.lwjgl.glfw.GLFW;
 
-import java.util.Set;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-
 public class TierTaggerCommon {
     public static final String MOD_ID = "tiertagger";
     public static final String VERSION = FabricLoader.getInstance()
@@ -35,18 +34,17 @@ public class TierTaggerCommon {
             .orElse("unknown");
     public static final Logger LOGGER = LogManager.getLogger(MOD_ID);
 
-    private static final Set<UUID> pendingFetches = ConcurrentHashMap.newKeySet();
-    private static ClientLevel lastWorld = null;
-    private static int tickCounter = 0;
     @Getter
     private static boolean updateAvailable = false;
 
     private static KeyMapping configKey;
     private static KeyMapping lookupKey;
     private static KeyMapping lastHitLookupKey;
+    private static KeyMapping metricsKey;
     private static long lastLookupTime = 0;
     private static final long LOOKUP_COOLDOWN_MS = 500;
 
+    @Getter
     private static Player lastHitPlayer = null;
 
     public static void setLastHitPlayer(Player player) {
@@ -54,7 +52,7 @@ public class TierTaggerCommon {
     }
 
     public static void clearPendingFetches() {
-        pendingFetches.clear();
+        RosterTracker.clearPendingFetches();
     }
 
     public static void init() {
@@ -64,6 +62,7 @@ public class TierTaggerCommon {
             ModConfigLoader.load();
             TierSourceFactory.init();
             GameModeManager.init();
+            PlayerDataStore.preload(ModConfig.getTierSource());
         } catch (Exception e) {
             LOGGER.error("Error during mod initialization:", e);
             return;
@@ -99,11 +98,27 @@ public class TierTaggerCommon {
                     GLFW.GLFW_KEY_C,
                     "key.category.tiertagger.general");
             KeyBindingHelper.registerKeyBinding(lastHitLookupKey);
+
+            metricsKey = new KeyMapping(
+                    "key.tiertagger.toggle_metrics",
+                    InputConstants.Type.KEYSYM,
+                    GLFW.GLFW_KEY_UNKNOWN,
+                    "key.category.tiertagger.general");
+            KeyBindingHelper.registerKeyBinding(metricsKey);
         } catch (Exception e) {
             LOGGER.error("Error registering key binding:", e);
         }
 
         HudRenderCallback.EVENT.register(LookupHud::render);
+        HudRenderCallback.EVENT.register(MetricsHud::render);
+
+        ClientEntityEvents.ENTITY_LOAD.register(RosterTracker::onEntityLoad);
+        ClientEntityEvents.ENTITY_UNLOAD.register(RosterTracker::onEntityUnload);
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> {
+            RosterTracker.clear();
+            PlayerDataStore.flushAll();
+        });
+        ClientLifecycleEvents.CLIENT_STOPPING.register(client -> PlayerDataStore.flushAll());
 
         ClientTickEvents.END_CLIENT_TICK.register(client -> {
             while (configKey.consumeClick()) {
@@ -112,6 +127,10 @@ public class TierTaggerCommon {
                 }
             }
 
+            while (metricsKey.consumeClick()) {
+                ModConfig.toggleShowMetricsOverlay();
+            }
+
             if (lookupKey.consumeClick()) {
                 long now = System.currentTimeMillis();
                 if (now - lastLookupTime >= LOOKUP_COOLDOWN_MS && client.player != null) {
@@ -137,43 +156,11 @@ public class TierTaggerCommon {
         ClientTickEvents.START_CLIENT_TICK.register(minecraft -> {
             if (minecraft.player == null)
                 return;
-            LocalPlayer player = minecraft.player;
 
             try {
-                Level level = player.level();
-                if (!level.isClientSide() || !(level instanceof ClientLevel clientLevel))
-                    return;
-
-                if (lastWorld != clientLevel) {
-                    lastWorld = clientLevel;
-                    pendingFetches.clear();
-                }
-
-                tickCounter++;
-
-                if (tickCounter % 40 == 0) {
-                    for (AbstractClientPlayer p : clientLevel.players()) {
-                        UUID uuid = p.getUUID();
-                        if (!TierManager.hasPlayerData(uuid) && pendingFetches.add(uuid)) {
-                            TierManager.fetchPlayerData(uuid, p.getName().getString());
-                        }
-                    }
-                    pendingFetches.removeIf(TierManager::hasPlayerData);
-                }
-
-                if (tickCounter % 600 == 0) {
-                    pendingFetches.removeIf(uuid ->
-                            clientLevel.players().stream()
-                                    .noneMatch(p -> p.getUUID().equals(uuid))
-                    );
-                }
-
-                if (tickCounter % 2400 == 0) {
-                    TierManager.cleanupCache(clientLevel.players());
-                    tickCounter = 0;
-                }
+                RosterTracker.tick();
             } catch (Exception e) {
-                LOGGER.error("Error checking world change:", e);
+                LOGGER.error("Error scheduling player fetches:", e);
             }
         });
     }
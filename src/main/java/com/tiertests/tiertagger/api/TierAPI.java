@@ -4,35 +4,49 @@ import com.google.gson.*;
 import com.tiertests.tiertagger.data.GameMode;
 import com.tiertests.tiertagger.data.PlayerData;
 import com.tiertests.tiertagger.data.PlayerResult;
+import com.tiertests.tiertagger.manager.TierManager;
 import lombok.Getter;
 
 import com.tiertests.tiertagger.TierTaggerCommon;
+import com.tiertests.tiertagger.api.http.CircuitBreaker;
+import com.tiertests.tiertagger.api.http.Endpoint;
+import com.tiertests.tiertagger.api.http.HttpTransport;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
 
+import com.tiertests.tiertagger.config.ExecutorMode;
 import com.tiertests.tiertagger.config.ModConfig;
 
 public class TierAPI {
+    private static final ThreadPoolExecutor platformExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(4);
+    private static final ExecutorService virtualExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    // Picks the pool per task, so a changed executor-mode applies without rebuilding the HTTP client
     @Getter
-    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private static final Executor executor = task ->
+            (ModConfig.getExecutorMode() == ExecutorMode.VIRTUAL ? virtualExecutor : platformExecutor).execute(task);
     private static final Gson gson = new Gson();
 
     @Getter
     private static String discordInvite = "https://discord.gg/tiertests";
 
+    // Virtual threads start straight away, so only the platform pool ever has a queue
+    public static int getExecutorQueueDepth() {
+        return platformExecutor.getQueue().size();
+    }
+
     public static CompletableFuture<PlayerData> fetchPlayerData(UUID uuid, String name) {
-        return TierSourceFactory.getTierSource(ModConfig.getTierSource()).fetchPlayerData(uuid, name);
+        return TierManager.loadPlayerData(ModConfig.getTierSource(), uuid, name);
     }
 
     public static CompletableFuture<Map<String, GameMode>> getAllModes() {
@@ -47,7 +61,7 @@ public class TierAPI {
         Map<TierSourceFactory.TierSources, CompletableFuture<PlayerResult>> futures = new LinkedHashMap<>();
         for (TierSourceFactory.TierSources source : TierSourceFactory.TierSources.values()) {
             TierSource tierSource = TierSourceFactory.getTierSource(source);
-            if (tierSource != null) {
+            if (tierSource != null && !CircuitBreaker.forSource(source).isOpen()) {
                 futures.put(source, tierSource.fetchPlayerDataByNameFresh(username).exceptionally(ex -> {
                     TierTaggerCommon.LOGGER.error("Error fetching from {}: {}", source.getDisplayName(), ex.getMessage());
                     return null;
@@ -70,33 +84,18 @@ public class TierAPI {
                 });
     }
 
-    private static String makeRequest(String endpoint) {
-        HttpURLConnection conn = null;
-        try {
-            URL url = URI.create(endpoint).toURL();
-            conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            conn.setRequestProperty("User-Agent", "TierTagger/" + TierTaggerCommon.VERSION);
-            conn.setRequestProperty("Accept", "application/json");
-            conn.setConnectTimeout(15000);
-            conn.setReadTimeout(15000);
-
-            if (conn.getResponseCode() == 200) {
-                try (BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
-                    StringBuilder response = new StringBuilder();
-                    String line;
-                    while ((line = in.readLine()) != null) {
-                        response.append(line);
-                    }
-                    return response.toString();
-                }
-            }
-        } catch (Exception e) {
-            TierTaggerCommon.LOGGER.error("Request error for {}", endpoint, e);
-        } finally {
-            if (conn != null) conn.disconnect();
-        }
-        return null;
+    private static CompletableFuture<String> makeRequest(String endpoint) {
+        HttpRequest request = HttpTransport.request(endpoint)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        return HttpTransport.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .thenApply(response -> response.statusCode() == 200 ? response.body() : null)
+                .exceptionally(e -> {
+                    TierTaggerCommon.LOGGER.error("Request error for {}", endpoint, e);
+                    return null;
+                });
     }
 
     public static void refreshDiscordInvite() {
@@ -108,9 +107,8 @@ public class TierAPI {
     }
 
     public static CompletableFuture<Boolean> checkUpdate(String currentVersion) {
-        return CompletableFuture.supplyAsync(() -> {
+        return makeRequest("https://api.modrinth.com/v2/project/tiertests/version").thenApply(response -> {
             try {
-                String response = makeRequest("https://api.modrinth.com/v2/project/tiertests/version");
                 if (response == null)
                     return false;
 
@@ -135,13 +133,12 @@ public class TierAPI {
             } catch (Exception e) {
                 return false;
             }
-        }, executor);
+        });
     }
     
     public static CompletableFuture<String> fetchDiscordInvite() {
-        return CompletableFuture.supplyAsync(() -> {
+        return makeRequest(Endpoint.TIER_TESTS.getBase() + "/config/modern.guild_invite").thenApply(response -> {
             try {
-                String response = makeRequest("https://api.tiertests.com/v1/config/modern.guild_invite");
                 if (response == null) {
                     return null;
                 }
@@ -153,7 +150,7 @@ public class TierAPI {
             } catch (Exception e) {
                 return null;
             }
-        }, executor);
+        });
     }
 
 }
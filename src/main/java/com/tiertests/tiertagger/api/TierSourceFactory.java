@@ -14,17 +14,25 @@ import java.util.function.Supplier;
 public class TierSourceFactory {
     private static final Map<TierSources, TierSource> INSTANCES = new HashMap<>();
 
+    // Default request rates stay under what each API tolerates from one client; the smaller
+    // community lists run on far less capacity than Tier Tests
     @RequiredArgsConstructor
     public enum TierSources {
-        TIER_TESTS("Tier Tests", "\uE903", TierTestsSource::new),
-        MC_TIERS("MCTiers", "\uE901", McTiersSource::new),
-        SUB_TIERS("SubTiers", "\uE902", SubTiersSource::new),
-        PVP_TIERS("PVPTiers", "\uE904", PvpTiersSource::new);
+        TIER_TESTS("Tier Tests", "\uE903", "tier-tests", 5, 10, TierTestsSource::new),
+        MC_TIERS("MCTiers", "\uE901", "mctiers", 3, 6, McTiersSource::new),
+        SUB_TIERS("SubTiers", "\uE902", "subtiers", 2, 4, SubTiersSource::new),
+        PVP_TIERS("PVPTiers", "\uE904", "pvptiers", 2, 4, PvpTiersSource::new);
 
         @Getter
         private final String displayName;
         @Getter
         private final String logoIcon;
+        @Getter
+        private final String key;
+        @Getter
+        private final int defaultRequestsPerSecond;
+        @Getter
+        private final int defaultRequestBurst;
         private final Supplier<TierSource> source;
 
         public TierSource getSource() {
@@ -42,4 +50,11 @@ public class TierSourceFactory {
         return INSTANCES.get(tierSources);
     }
 
+    public static TierSources getType(TierSource tierSource) {
+        for (Map.Entry<TierSources, TierSource> entry : INSTANCES.entrySet()) {
+            if (entry.getValue() == tierSource) return entry.getKey();
+        }
+        return null;
+    }
+
 }
@@ -0,0 +1,110 @@
+package com.tiertests.tiertagger.api.http;
+
+import com.tiertests.tiertagger.TierTaggerCommon;
+import com.tiertests.tiertagger.api.TierSourceFactory;
+import lombok.Getter;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+public class CircuitBreaker {
+    private static final Map<TierSourceFactory.TierSources, CircuitBreaker> BREAKERS = new EnumMap<>(TierSourceFactory.TierSources.class);
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final long BASE_OPEN_MS = 30 * 1000;
+    private static final long MAX_OPEN_MS = 5 * 60 * 1000;
+
+    static {
+        for (TierSourceFactory.TierSources source : TierSourceFactory.TierSources.values()) {
+            BREAKERS.put(source, new CircuitBreaker(source.getDisplayName()));
+        }
+    }
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    @Getter
+    private final String name;
+    private final LongSupplier clock;
+    @Getter
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openDurationMs = BASE_OPEN_MS;
+    private long openUntil;
+    private boolean probeInFlight;
+
+    private CircuitBreaker(String name) {
+        this(name, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(String name, LongSupplier clock) {
+        this.name = name;
+        this.clock = clock;
+    }
+
+    public static CircuitBreaker forSource(TierSourceFactory.TierSources source) {
+        return BREAKERS.get(source);
+    }
+
+    public synchronized boolean isOpen() {
+        return switch (state) {
+            case CLOSED -> false;
+            case OPEN -> clock.getAsLong() < openUntil;
+            case HALF_OPEN -> probeInFlight;
+        };
+    }
+
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.getAsLong() < openUntil) return false;
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            default:
+                if (probeInFlight) return false;
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            TierTaggerCommon.LOGGER.info("{} recovered, closing circuit", name);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        openDurationMs = BASE_OPEN_MS;
+        probeInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        if (state == State.HALF_OPEN) {
+            openDurationMs = Math.min(MAX_OPEN_MS, openDurationMs * 2);
+            open();
+            return;
+        }
+
+        consecutiveFailures++;
+        if (state == State.CLOSED && consecutiveFailures >= FAILURE_THRESHOLD) {
+            open();
+        }
+    }
+
+    // A cancelled request says nothing about the source; a probe gives its turn to the next one
+    public synchronized void recordCancelled() {
+        probeInFlight = false;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        probeInFlight = false;
+        openUntil = clock.getAsLong() + openDurationMs;
+        TierTaggerCommon.LOGGER.warn("{} is failing, skipping requests for {} s", name, openDurationMs / 1000);
+    }
+}
@@ -0,0 +1,87 @@
+package com.tiertests.tiertagger.api.http;
+
+import com.tiertests.tiertagger.TierTaggerCommon;
+import com.tiertests.tiertagger.api.TierAPI;
+import com.tiertests.tiertagger.config.ExecutorMode;
+import com.tiertests.tiertagger.config.ModConfig;
+import com.tiertests.tiertagger.util.Metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class HttpTransport {
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(15);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(15);
+
+    // One client for every host: connections are pooled and kept alive, and
+    // HTTP/2 hosts multiplex all in-flight requests over a single connection.
+    private static final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .executor(TierAPI.getExecutor())
+            .build();
+
+    public static HttpRequest.Builder request(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("User-Agent", "TierTagger/" + TierTaggerCommon.VERSION);
+    }
+
+    public static <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        long start = System.nanoTime();
+        return client.sendAsync(request, handler).whenComplete((response, error) -> record(request, response, start));
+    }
+
+    // In virtual mode each request gets its own virtual thread that blocks on the response,
+    // holding one of the source's permits for as long as the request is open
+    public static <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> handler, RequestPermits permits) {
+        if (ModConfig.getExecutorMode() != ExecutorMode.VIRTUAL) {
+            return send(request, handler);
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquireCurrent();
+            long start = System.nanoTime();
+            HttpResponse<T> response = null;
+            try {
+                response = client.send(request, handler);
+                return response;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            } finally {
+                permits.release();
+                record(request, response, start);
+            }
+        }, TierAPI.getExecutor());
+    }
+
+    // Latency runs to the response headers, which is when a streamed body starts being read
+    private static void record(HttpRequest request, HttpResponse<?> response, long start) {
+        Metrics.recordRequest(Endpoint.nameOf(request.uri()), response != null ? response.statusCode() : -1, System.nanoTime() - start);
+    }
+
+    public static void discard(HttpResponse<?> response) {
+        if (response.body() instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    public static boolean isSuccess(HttpResponse<?> response) {
+        int code = response.statusCode();
+        return code >= 200 && code < 300;
+    }
+}
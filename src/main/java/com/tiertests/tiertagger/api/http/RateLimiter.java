@@ -0,0 +1,197 @@
+package com.tiertests.tiertagger.api.http;
+
+import com.tiertests.tiertagger.TierTaggerCommon;
+import com.tiertests.tiertagger.api.TierAPI;
+import com.tiertests.tiertagger.api.TierSourceFactory;
+import com.tiertests.tiertagger.config.ModConfig;
+import lombok.Getter;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+public class RateLimiter {
+    private static final Map<TierSourceFactory.TierSources, RateLimiter> LIMITERS = new EnumMap<>(TierSourceFactory.TierSources.class);
+    private static final long DEFAULT_BACKOFF_MS = 5000;
+    private static final long MAX_BACKOFF_MS = 5 * 60 * 1000;
+    private static final int MOJANG_REQUESTS_PER_SECOND = 2;
+    private static final int MOJANG_REQUEST_BURST = 4;
+
+    // Every name lookup route shares Mojang's per-address limit, so they share one limiter
+    private static final RateLimiter MOJANG = new RateLimiter("Mojang", () -> MOJANG_REQUESTS_PER_SECOND, () -> MOJANG_REQUEST_BURST);
+
+    static {
+        for (TierSourceFactory.TierSources source : TierSourceFactory.TierSources.values()) {
+            LIMITERS.put(source, new RateLimiter(source.getDisplayName(),
+                    () -> ModConfig.getRequestsPerSecond(source), () -> ModConfig.getRequestBurst(source)));
+        }
+    }
+
+    @Getter
+    private final String name;
+    private final IntSupplier requestsPerSecond;
+    private final IntSupplier requestBurst;
+    private final PriorityQueue<Waiter> waiting = new PriorityQueue<>();
+    private long nextSeq;
+    private double tokens;
+    private long lastRefill;
+    private long blockedUntil;
+    private boolean drainScheduled;
+    private long throttledResponses;
+
+    // Same-priority waiters keep their arrival order
+    private record Waiter(FetchPriority priority, long seq, CompletableFuture<Void> permit) implements Comparable<Waiter> {
+        @Override
+        public int compareTo(Waiter other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(seq, other.seq);
+        }
+    }
+
+    public record State(String name, double tokens, int queued, long blockedForMs, long throttledResponses) {}
+
+    RateLimiter(String name, IntSupplier requestsPerSecond, IntSupplier requestBurst) {
+        this.name = name;
+        this.requestsPerSecond = requestsPerSecond;
+        this.requestBurst = requestBurst;
+        this.tokens = requestBurst.getAsInt();
+        this.lastRefill = System.nanoTime();
+    }
+
+    public static RateLimiter forSource(TierSourceFactory.TierSources source) {
+        return LIMITERS.get(source);
+    }
+
+    public static RateLimiter forMojang() {
+        return MOJANG;
+    }
+
+    public static List<State> getAllStates() {
+        List<State> states = new ArrayList<>();
+        for (RateLimiter limiter : LIMITERS.values()) {
+            states.add(limiter.getState());
+        }
+        states.add(MOJANG.getState());
+        return states;
+    }
+
+    public CompletableFuture<Void> acquire(FetchPriority priority) {
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+            dropCancelled();
+            boolean ahead = waiting.isEmpty() || priority.compareTo(waiting.peek().priority()) < 0;
+            if (ahead && now >= blockedUntil && tokens >= 1) {
+                tokens--;
+                return CompletableFuture.completedFuture(null);
+            }
+
+            CompletableFuture<Void> permit = new CompletableFuture<>();
+            waiting.add(new Waiter(priority, nextSeq++, permit));
+            scheduleDrain(now);
+            return permit;
+        }
+    }
+
+    public void onResponse(HttpResponse<?> response) {
+        int code = response.statusCode();
+        if (code != 429 && code != 503) return;
+
+        long backoffMs = parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null));
+        synchronized (this) {
+            long now = System.nanoTime();
+            throttledResponses++;
+            refill(now);
+            tokens = 0;
+            blockedUntil = Math.max(blockedUntil, now + TimeUnit.MILLISECONDS.toNanos(backoffMs));
+            scheduleDrain(now);
+        }
+        TierTaggerCommon.LOGGER.debug("{} throttled ({}), backing off for {} ms", name, code, backoffMs);
+    }
+
+    public synchronized State getState() {
+        long now = System.nanoTime();
+        refill(now);
+        dropCancelled();
+        long blockedFor = Math.max(0, TimeUnit.NANOSECONDS.toMillis(blockedUntil - now));
+        return new State(name, tokens, waiting.size(), blockedFor, throttledResponses);
+    }
+
+    private void drain() {
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+        synchronized (this) {
+            drainScheduled = false;
+            long now = System.nanoTime();
+            refill(now);
+            if (now >= blockedUntil) {
+                while (!waiting.isEmpty() && tokens >= 1) {
+                    CompletableFuture<Void> permit = waiting.poll().permit();
+                    // Cancelled while waiting, e.g. its player left; it gives up its place for free
+                    if (permit.isDone()) continue;
+                    tokens--;
+                    granted.add(permit);
+                }
+            }
+            scheduleDrain(now);
+        }
+
+        for (CompletableFuture<Void> permit : granted) {
+            permit.complete(null);
+        }
+    }
+
+    private void dropCancelled() {
+        while (!waiting.isEmpty() && waiting.peek().permit().isDone()) {
+            waiting.poll();
+        }
+    }
+
+    private void scheduleDrain(long now) {
+        if (drainScheduled || waiting.isEmpty()) return;
+
+        long delayNanos;
+        if (now < blockedUntil) {
+            delayNanos = blockedUntil - now;
+        } else {
+            double perSecond = Math.max(0.1, requestsPerSecond.getAsInt());
+            delayNanos = (long) (Math.max(0, 1 - tokens) / perSecond * 1_000_000_000L);
+        }
+
+        drainScheduled = true;
+        CompletableFuture.delayedExecutor(Math.max(1, delayNanos), TimeUnit.NANOSECONDS, TierAPI.getExecutor())
+                .execute(this::drain);
+    }
+
+    private void refill(long now) {
+        double perSecond = Math.max(0.1, requestsPerSecond.getAsInt());
+        int burst = Math.max(1, requestBurst.getAsInt());
+        tokens = Math.min(burst, tokens + (now - lastRefill) / 1_000_000_000.0 * perSecond);
+        lastRefill = now;
+    }
+
+    private static long parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) return DEFAULT_BACKOFF_MS;
+
+        try {
+            return Math.min(MAX_BACKOFF_MS, Math.max(0, Long.parseLong(value.trim()) * 1000));
+        } catch (NumberFormatException ignored) {
+        }
+
+        try {
+            ZonedDateTime retryAt = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            long ms = Duration.between(ZonedDateTime.now(retryAt.getZone()), retryAt).toMillis();
+            return Math.min(MAX_BACKOFF_MS, Math.max(0, ms));
+        } catch (Exception e) {
+            return DEFAULT_BACKOFF_MS;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.tiertests.tiertagger.api.http;
+
+import com.tiertests.tiertagger.config.ModConfig;
+
+import java.util.concurrent.Semaphore;
+
+// A source's cap on open requests in virtual mode, kept at max-requests-per-source as that
+// changes. Growing frees permits straight away; shrinking takes effect as open requests finish.
+public class RequestPermits extends Semaphore {
+    private volatile int size;
+
+    public RequestPermits() {
+        this(ModConfig.getMaxRequestsPerSource());
+    }
+
+    private RequestPermits(int size) {
+        super(size);
+        this.size = size;
+    }
+
+    public void acquireCurrent() {
+        int wanted = ModConfig.getMaxRequestsPerSource();
+        if (wanted != size) {
+            resize(wanted);
+        }
+        acquireUninterruptibly();
+    }
+
+    private synchronized void resize(int wanted) {
+        if (wanted > size) {
+            release(wanted - size);
+        } else if (wanted < size) {
+            reducePermits(size - wanted);
+        }
+        size = wanted;
+    }
+}
@@ -0,0 +1,121 @@
+package com.tiertests.tiertagger.api.impl;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.tiertests.tiertagger.data.GameMode;
+import com.tiertests.tiertagger.data.GameModeManager;
+import com.tiertests.tiertagger.data.PlayerData;
+import com.tiertests.tiertagger.data.Region;
+import com.tiertests.tiertagger.data.Tier;
+import com.tiertests.tiertagger.util.JsonReaders;
+import com.tiertests.tiertagger.util.StringUtils;
+
+import java.io.IOException;
+
+// Profile format shared by MCTiers, SubTiers and PVPTiers
+class RankingsProfileReader {
+    static PlayerData read(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+
+        PlayerData.Builder playerData = PlayerData.builder().badge("");
+        Integer overall = null;
+        Integer points = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "region" -> {
+                    String region = JsonReaders.nextStringOrNull(reader);
+                    if (region != null) {
+                        playerData.region(new Region(region, region));
+                    }
+                }
+                case "rankings" -> readRankings(reader, playerData);
+                case "badges" -> readBadge(reader, playerData);
+                case "overall" -> overall = JsonReaders.nextIntOrNull(reader);
+                case "points" -> points = JsonReaders.nextIntOrNull(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (overall != null) {
+            playerData.rank(overall);
+            if (points != null) {
+                playerData.points(points);
+            }
+        }
+
+        return playerData.lastUpdated(System.currentTimeMillis()).build();
+    }
+
+    private static void readRankings(JsonReader reader, PlayerData.Builder playerData) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String gameModeStr = reader.nextName();
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+
+            Integer tierNum = null;
+            Integer pos = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "tier" -> tierNum = JsonReaders.nextIntOrNull(reader);
+                    case "pos" -> pos = JsonReaders.nextIntOrNull(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (tierNum == null || pos == null)
+                continue;
+
+            GameMode mode = GameModeManager.getFromName(gameModeStr);
+            Tier tier = Tier.fromString((pos == 1 ? "L" : "H") + "T" + tierNum);
+            if (mode == null || tier == null)
+                continue;
+
+            playerData.addTier(mode, tier);
+        }
+        reader.endObject();
+    }
+
+    private static void readBadge(JsonReader reader, PlayerData.Builder playerData) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+
+        reader.beginArray();
+        if (reader.hasNext()) {
+            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (reader.nextName().equals("title")) {
+                        playerData.badge(StringUtils.sanitize(JsonReaders.nextStringOrNull(reader)));
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+        }
+        while (reader.hasNext()) {
+            reader.skipValue();
+        }
+        reader.endArray();
+    }
+}
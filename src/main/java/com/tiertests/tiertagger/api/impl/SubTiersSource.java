@@ -2,13 +2,10 @@ package com.tiertests.tiertagger.api.impl;
 
 import com.tiertests.tiertagger.TierTaggerCommon;
 import com.tiertests.tiertagger.api.TierSource;
+import com.tiertests.tiertagger.api.http.Endpoint;
 import com.tiertests.tiertagger.data.*;
 import com.google.common.reflect.TypeToken;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.tiertests.tiertagger.util.StringUtils;
 
 import java.lang.reflect.Type;
 import java.util.HashMap;
@@ -59,83 +56,18 @@ public class SubTiersSource extends TierSource {
 
     @Override
     public String getBase() {
-        return "https://subtiers.net/api/v2";
+        return Endpoint.SUB_TIERS.getBase();
     }
 
     @Override
     public CompletableFuture<PlayerData> fetchPlayerData(UUID uuid, String name) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                PlayerData playerData = new PlayerData();
-
-                String data = makeRequest("GET", "/profile/" + uuid, null);
-                if (data == null)
-                    return null;
-
-                JsonObject dataObj = JsonParser.parseString(data).getAsJsonObject();
-
-                JsonElement regionEl = dataObj.get("region");
-                if (regionEl != null && !regionEl.isJsonNull()) {
-                    String regionStr = regionEl.getAsString();
-                    playerData.setRegion(new Region(regionStr, regionStr));
-                }
-
-                JsonElement rankingsEl = dataObj.get("rankings");
-                if (rankingsEl == null || rankingsEl.isJsonNull()) return playerData;
-                JsonObject rankingsObj = rankingsEl.getAsJsonObject();
-                Map<String, Map<String, JsonElement>> rankings = gson.fromJson(rankingsObj, modesType);
-                if (rankings != null) {
-                    for (Map.Entry<String, Map<String, JsonElement>> rank : rankings.entrySet()) {
-                        String gameModeStr = rank.getKey();
-                        Map<String, JsonElement> obj = rank.getValue();
-
-                        String tierStr = (obj.get("pos").getAsInt() == 1 ? "L" : "H") + "T"
-                                + obj.get("tier").getAsInt();
-
-                        GameMode mode = GameModeManager.getFromName(gameModeStr);
-                        Tier tier = Tier.fromString(tierStr);
-
-                        if (mode == null || tier == null)
-                            continue;
-
-                        playerData.addTier(mode, tier);
-                    }
-                }
-
-                JsonArray badge = dataObj.getAsJsonArray("badges");
-                if (badge != null && !badge.isEmpty()) {
-                    JsonObject badgeObj = badge.get(0).getAsJsonObject();
-                    String badgeStr = badgeObj.get("title").getAsString();
-                    badgeStr = StringUtils.sanitize(badgeStr);
-                    playerData.setBadge(badgeStr);
-                } else {
-                    playerData.setBadge("");
-                }
-
-                JsonElement ranking = dataObj.get("overall");
-                if (ranking != null && !ranking.isJsonNull()) {
-                    playerData.setRank(ranking.getAsInt());
-                    JsonElement pointsEl = dataObj.get("points");
-                    if (pointsEl != null && !pointsEl.isJsonNull()) {
-                        playerData.setPoints(pointsEl.getAsInt());
-                    }
-                }
-
-                playerData.setLastUpdated(System.currentTimeMillis());
-
-                return playerData;
-            } catch (Exception ex) {
-                TierTaggerCommon.LOGGER.error("Error fetching player data from SubTiers", ex);
-            }
-            return null;
-        }, executor);
+        return requestJson("GET", "/profile/" + uuid, null, RankingsProfileReader::read, () -> PlayerData.EMPTY);
     }
 
     @Override
     public CompletableFuture<Map<String, GameMode>> getAllModes() {
-        return CompletableFuture.supplyAsync(() -> {
+        return makeRequest("GET", "/mode/list", null).thenApply(modesResult -> {
             try {
-                String modesResult = makeRequest("GET", "/mode/list", null);
                 if (modesResult == null) {
                     TierTaggerCommon.LOGGER.error("Modes not found for SubTiers. Try relaunching again soon.");
                     return null;
@@ -167,6 +99,6 @@ public class SubTiersSource extends TierSource {
                 TierTaggerCommon.LOGGER.error("Error fetching game modes from SubTiers", e);
                 return null;
             }
-        }, executor);
+        });
     }
 }
@@ -2,15 +2,24 @@ package com.tiertests.tiertagger.api.impl;
 
 import com.tiertests.tiertagger.TierTaggerCommon;
 import com.tiertests.tiertagger.api.TierSource;
+import com.tiertests.tiertagger.api.TierSourceFactory;
+import com.tiertests.tiertagger.api.http.Endpoint;
+import com.tiertests.tiertagger.api.http.FetchPriority;
+import com.tiertests.tiertagger.api.http.WorkQueue;
 import com.tiertests.tiertagger.data.*;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.tiertests.tiertagger.manager.TierManager;
+import com.tiertests.tiertagger.util.JsonReaders;
 import com.tiertests.tiertagger.util.StringUtils;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TierTestsSource extends TierSource {
     @Override
@@ -20,137 +29,241 @@ public class TierTestsSource extends TierSource {
 
     @Override
     public String getBase() {
-        return "https://api.tiertests.com/v1";
+        return Endpoint.TIER_TESTS.getBase();
     }
 
     @Override
     public CompletableFuture<PlayerData> fetchPlayerData(UUID uuid, String name) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                PlayerData playerData = new PlayerData();
+        String endpoint = "/tiers/current/all?minecraftUuid=" + uuid + "&version=MODERN";
+        return requestJson("GET", endpoint, null, this::readCurrentTiers, () -> new CurrentTiers(PlayerData.EMPTY, null))
+                .thenApply(result -> {
+                    if (result == null) return null;
 
-                String data = makeRequest("GET", "/tiers/current/all?minecraftUuid=" + uuid + "&version=MODERN", null);
-                if (data == null)
-                    return null;
+                    if (result.discordId() != null) {
+                        fetchPeakTiersAsync(uuid, result.playerData(), result.discordId());
+                    }
+                    return result.playerData();
+                });
+    }
 
-                JsonObject response = JsonParser.parseString(data).getAsJsonObject();
-                if (response.isJsonNull() || !response.get("success").getAsBoolean())
-                    return null;
+    record CurrentTiers(PlayerData playerData, Long discordId) {}
+
+    CurrentTiers readCurrentTiers(JsonReader reader) throws IOException {
+        boolean success = false;
+        PlayerData.Builder playerData = PlayerData.builder();
+        Long discordId = null;
+        boolean hasEntries = false;
 
-                JsonArray dataObj = response.getAsJsonArray("data");
-                if (dataObj == null || dataObj.isEmpty()) return null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "success" -> success = JsonReaders.nextBooleanOrFalse(reader);
+                case "data" -> {
+                    if (JsonReaders.skipNull(reader)) break;
 
-                JsonObject firstEntry = dataObj.get(0).getAsJsonObject();
-                JsonObject userObj = firstEntry.getAsJsonObject("user");
-                JsonElement regionElement = userObj != null ? userObj.get("region") : null;
-                if (regionElement != null && !regionElement.isJsonNull()) {
-                    String regionStr = regionElement.getAsString();
-                    Region region = new Region(regionStr, regionStr);
-                    playerData.setRegion(region);
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        Long entryDiscordId = readTierEntry(reader, playerData, !hasEntries);
+                        if (!hasEntries) {
+                            discordId = entryDiscordId;
+                            hasEntries = true;
+                        }
+                    }
+                    reader.endArray();
                 }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
 
-                for (JsonElement element : dataObj.asList()) {
-                    JsonObject obj = element.getAsJsonObject();
+        if (!success)
+            return null;
 
-                    if (!obj.get("gamemode").getAsJsonObject().get("version").getAsString().equalsIgnoreCase("MODERN"))
-                        continue;
+        return new CurrentTiers(playerData.lastUpdated(System.currentTimeMillis()).build(), discordId);
+    }
 
-                    String gameModeStr = obj.get("gamemode").getAsJsonObject().get("name").getAsString();
-                    String tierStr = obj.get("tier").getAsString();
+    // Region, badge, rank and Discord id are taken from the first entry only
+    private Long readTierEntry(JsonReader reader, PlayerData.Builder playerData, boolean first) throws IOException {
+        String gameModeStr = null;
+        String version = null;
+        String tierStr = null;
+        Long discordId = null;
 
-                    GameMode mode = GameModeManager.getFromName(gameModeStr);
-                    Tier tier = Tier.fromString(tierStr);
-                    if (mode == null || tier == null)
-                        continue;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if (JsonReaders.skipNull(reader)) continue;
 
-                    playerData.addTier(mode, tier);
+            switch (field) {
+                case "tier" -> tierStr = JsonReaders.nextStringOrNull(reader);
+                case "gamemode" -> {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "name" -> gameModeStr = JsonReaders.nextStringOrNull(reader);
+                            case "version" -> version = JsonReaders.nextStringOrNull(reader);
+                            default -> reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
                 }
-
-                JsonObject badge = firstEntry.getAsJsonObject("badge");
-                if (badge != null) {
-                    String badgeColor = badge.get("legacyColor").getAsString();
-                    String badgeEmoji = badge.get("emoji").getAsString();
-                    badgeColor = StringUtils.sanitize(badgeColor);
-                    String colorized = "";
-                    if (!badgeColor.isBlank()) {
-                        colorized = "&" + badgeColor;
-                        colorized = colorized
-                                .replace("§§", "§")
-                                .replace("&&", "&");
-                        colorized = StringUtils.colorize(colorized);
+                case "user" -> {
+                    if (!first) {
+                        reader.skipValue();
+                        break;
+                    }
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "region" -> {
+                                String regionStr = JsonReaders.nextStringOrNull(reader);
+                                if (regionStr != null) {
+                                    playerData.region(new Region(regionStr, regionStr));
+                                }
+                            }
+                            case "discordId" -> discordId = JsonReaders.nextLongOrNull(reader);
+                            default -> reader.skipValue();
+                        }
                     }
-                    badgeEmoji = StringUtils.sanitize(badgeEmoji);
-                    playerData.setBadge(colorized + badgeEmoji);
+                    reader.endObject();
                 }
-
-                JsonObject rank = firstEntry.getAsJsonObject("rankModern");
-                if (rank != null) {
-                    int rankNum = rank.get("rank").getAsInt();
-                    playerData.setRank(rankNum);
-                    int points = rank.get("points").getAsInt();
-                    playerData.setPoints(points);
+                case "badge" -> {
+                    if (!first) {
+                        reader.skipValue();
+                        break;
+                    }
+                    readBadge(reader, playerData);
                 }
-
-                playerData.setLastUpdated(System.currentTimeMillis());
-
-                JsonElement userElement = firstEntry.get("user");
-                if (userElement != null && !userElement.isJsonNull()) {
-                    JsonElement discordIdEl = userElement.getAsJsonObject().get("discordId");
-                    if (discordIdEl != null && !discordIdEl.isJsonNull()) {
-                        long discordId = discordIdEl.getAsLong();
-                        fetchPeakTiersAsync(playerData, discordId);
+                case "rankModern" -> {
+                    if (!first) {
+                        reader.skipValue();
+                        break;
+                    }
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "rank" -> {
+                                Integer rank = JsonReaders.nextIntOrNull(reader);
+                                if (rank != null) playerData.rank(rank);
+                            }
+                            case "points" -> {
+                                Integer points = JsonReaders.nextIntOrNull(reader);
+                                if (points != null) playerData.points(points);
+                            }
+                            default -> reader.skipValue();
+                        }
                     }
+                    reader.endObject();
                 }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
 
-                return playerData;
-            } catch (Exception ex) {
-                TierTaggerCommon.LOGGER.error("Error fetching player data from TierTests", ex);
+        if ("MODERN".equalsIgnoreCase(version) && gameModeStr != null && tierStr != null) {
+            GameMode mode = GameModeManager.getFromName(gameModeStr);
+            Tier tier = Tier.fromString(tierStr);
+            if (mode != null && tier != null) {
+                playerData.addTier(mode, tier);
             }
-            return null;
-        }, executor);
+        }
+        return discordId;
     }
 
-    private void fetchPeakTiersAsync(PlayerData playerData, long discordId) {
-        for (Map.Entry<GameMode, Tier> entry : playerData.getTiers().entrySet()) {
-            GameMode mode = entry.getKey();
-            CompletableFuture.runAsync(() -> {
-                try {
-                    String endpoint = "/tiers/history/" + discordId + "/" + mode.name();
-                    String historyData = makeRequest("GET", endpoint, null);
-                    if (historyData == null) return;
-
-                    JsonObject historyResponse = JsonParser.parseString(historyData).getAsJsonObject();
-                    if (historyResponse.isJsonNull() || !historyResponse.get("success").getAsBoolean()) return;
-
-                    JsonArray historyArray = historyResponse.getAsJsonArray("data");
-                    if (historyArray == null || historyArray.isEmpty()) return;
-
-                    Tier peak = null;
-                    for (JsonElement el : historyArray) {
-                        JsonObject audit = el.getAsJsonObject();
-                        String tierStr = audit.get("tier").getAsString();
-                        Tier tier = Tier.fromString(tierStr);
-                        if (tier == null) continue;
-                        if (peak == null || tier.ordinal() < peak.ordinal()) {
-                            peak = tier;
-                        }
-                    }
+    private void readBadge(JsonReader reader, PlayerData.Builder playerData) throws IOException {
+        String badgeColor = null;
+        String badgeEmoji = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "legacyColor" -> badgeColor = JsonReaders.nextStringOrNull(reader);
+                case "emoji" -> badgeEmoji = JsonReaders.nextStringOrNull(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        badgeColor = StringUtils.sanitize(badgeColor);
+        String colorized = "";
+        if (!badgeColor.isBlank()) {
+            colorized = "&" + badgeColor;
+            colorized = colorized
+                    .replace("§§", "§")
+                    .replace("&&", "&");
+            colorized = StringUtils.colorize(colorized);
+        }
+        playerData.badge(colorized + StringUtils.sanitize(badgeEmoji));
+    }
+
+    // Peaks are gathered and applied together once the player is cached, so they publish one
+    // snapshot and one disk write however many modes the player has
+    private void fetchPeakTiersAsync(UUID uuid, PlayerData playerData, long discordId) {
+        Map<GameMode, Tier> peaks = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> requests = new ArrayList<>();
+        for (GameMode mode : playerData.getTiers().keySet()) {
+            String endpoint = "/tiers/history/" + discordId + "/" + mode.name();
+            requests.add(FetchPriority.supplyAs(FetchPriority.ENRICHMENT, () -> WorkQueue.of(WorkQueue.WorkClass.ENRICHMENT)
+                    .submit(endpoint, () -> requestJson("GET", endpoint, null, this::readPeakTier))).handle((peak, ex) -> {
+                if (peak != null) {
+                    peaks.put(mode, peak);
+                }
+                return null;
+            }));
+        }
+
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new))
+                .thenCompose(v -> TierManager.whenStored(TierSourceFactory.TierSources.TIER_TESTS, uuid))
+                .thenRun(() -> {
+                    if (peaks.isEmpty()) return;
+                    TierManager.updatePlayerData(TierSourceFactory.TierSources.TIER_TESTS, uuid, data -> {
+                        PlayerData.Builder builder = data.toBuilder();
+                        peaks.forEach(builder::addPeakTier);
+                        return builder.build();
+                    });
+                });
+    }
+
+    Tier readPeakTier(JsonReader reader) throws IOException {
+        boolean success = false;
+        Tier peak = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "success" -> success = JsonReaders.nextBooleanOrFalse(reader);
+                case "data" -> {
+                    if (JsonReaders.skipNull(reader)) break;
 
-                    if (peak != null) {
-                        playerData.addPeakTier(mode, peak);
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            if (!reader.nextName().equals("tier")) {
+                                reader.skipValue();
+                                continue;
+                            }
+                            Tier tier = Tier.fromString(JsonReaders.nextStringOrNull(reader));
+                            if (tier != null && (peak == null || tier.ordinal() < peak.ordinal())) {
+                                peak = tier;
+                            }
+                        }
+                        reader.endObject();
                     }
-                } catch (Exception e) {
-                    TierTaggerCommon.LOGGER.error("Error fetching peak tier for {}/{}", discordId, mode.name(), e);
+                    reader.endArray();
                 }
-            }, executor);
+                default -> reader.skipValue();
+            }
         }
+        reader.endObject();
+
+        return success ? peak : null;
     }
 
     @Override
     public CompletableFuture<Map<String, GameMode>> getAllModes() {
-        return CompletableFuture.supplyAsync(() -> {
+        return makeRequest("GET", "/gamemodes/modern", null).thenApply(modesResult -> {
             try {
-                String modesResult = makeRequest("GET", "/gamemodes/modern", null);
                 if (modesResult == null) {
                     TierTaggerCommon.LOGGER.error("Modes not found. Try relaunching again soon.");
                     return null;
@@ -182,6 +295,6 @@ public class TierTestsSource extends TierSource {
                 TierTaggerCommon.LOGGER.error("Error fetching game modes from TierTests", e);
                 return null;
             }
-        }, executor);
+        });
     }
 }
@@ -0,0 +1,13 @@
+package com.tiertests.tiertagger.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum ExecutorMode {
+    PLATFORM("Platform Threads"),
+    VIRTUAL("Virtual Threads");
+
+    private final String displayName;
+}
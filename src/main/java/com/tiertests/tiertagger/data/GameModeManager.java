@@ -2,18 +2,23 @@ package com.tiertests.tiertagger.data;
 
 import com.tiertests.tiertagger.api.TierAPI;
 import com.tiertests.tiertagger.api.TierSourceFactory;
+import com.tiertests.tiertagger.api.http.WorkQueue;
 import com.tiertests.tiertagger.config.ModConfig;
 
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public class GameModeManager {
-    private static volatile Map<String, GameMode> GAMEMODES = new TreeMap<>();
+    private static volatile Catalog CATALOG = Catalog.EMPTY;
     private static final Map<TierSourceFactory.TierSources, Map<String, GameMode>> CACHE = new ConcurrentHashMap<>();
+    private static final Set<TierSourceFactory.TierSources> RETRYING = ConcurrentHashMap.newKeySet();
+    private static final long RETRY_DELAY_MS = 30 * 1000;
 
     private static final java.util.concurrent.atomic.AtomicBoolean LOADING = new java.util.concurrent.atomic.AtomicBoolean(
             false);
@@ -26,20 +31,25 @@ public class GameModeManager {
         TierSourceFactory.TierSources source = ModConfig.getTierSource();
 
         if (CACHE.containsKey(source)) {
-            GAMEMODES = new TreeMap<>(CACHE.get(source));
+            publish();
+            ModConfig.bumpEpoch();
             return CompletableFuture.completedFuture(null);
         }
 
         LOADING.set(true);
-        return TierAPI.getAllModes().thenAccept(modesObject -> {
+        return WorkQueue.of(WorkQueue.WorkClass.METADATA).submit(source, TierAPI::getAllModes).thenAccept(modesObject -> {
             if (modesObject == null) {
                 LOADING.set(false);
+                retryLater(source, () -> {
+                    if (ModConfig.getTierSource() == source) updateModes();
+                });
                 return;
             }
 
             CACHE.put(source, modesObject);
-            GAMEMODES = new TreeMap<>(modesObject);
+            publish();
             LOADING.set(false);
+            ModConfig.bumpEpoch();
         });
     }
 
@@ -47,14 +57,14 @@ public class GameModeManager {
         if (LOADING.get())
             return null;
 
-        ArrayList<GameMode> list = new ArrayList<>(GAMEMODES.values());
-        if (list.isEmpty() || i >= list.size())
+        GameMode[] ordered = CATALOG.ordered();
+        if (i < 0 || i >= ordered.length)
             return null;
-        return list.get(i);
+        return ordered[i];
     }
 
     public static int getGameModeSize() {
-        return GAMEMODES.size();
+        return CATALOG.ordered().length;
     }
 
     public static boolean isLoading() {
@@ -65,46 +75,78 @@ public class GameModeManager {
         if (LOADING.get())
             return null;
 
-        for (Map.Entry<String, GameMode> entry : GAMEMODES.entrySet()) {
-            if (entry.getKey().equalsIgnoreCase(gameMode))
-                return entry.getValue();
-        }
+        if (gameMode == null)
+            return null;
 
-        for (Map.Entry<String, GameMode> entry : GAMEMODES.entrySet()) {
-            if (isSameModeName(entry.getKey(), gameMode) || isSameModeName(entry.getValue().name(), gameMode))
-                return entry.getValue();
-        }
+        Map<String, GameMode> byName = CATALOG.byName();
+        GameMode mode = byName.get(gameMode);
+        return mode != null ? mode : byName.get(gameMode.toLowerCase());
+    }
 
-        for (Map<String, GameMode> modes : CACHE.values()) {
-            for (Map.Entry<String, GameMode> entry : modes.entrySet()) {
-                if (entry.getKey().equalsIgnoreCase(gameMode) || entry.getValue().name().equalsIgnoreCase(gameMode))
-                    return entry.getValue();
+    // Reads the selected source and its modes under the same lock that swaps the snapshot, so
+    // a source switch and a mode load finishing together cannot publish an older catalog last.
+    // Until the selected source's modes arrive, the previous selection stays published.
+    private static synchronized void publish() {
+        Map<String, GameMode> selected = CACHE.get(ModConfig.getTierSource());
+        CATALOG = Catalog.build(new TreeMap<>(selected != null ? selected : CATALOG.selected()), CACHE);
+    }
+
+    // Immutable snapshot swapped in whole, so readers never see a half-built index
+    private record Catalog(Map<String, GameMode> selected, GameMode[] ordered, Map<String, GameMode> byName) {
+        private static final Catalog EMPTY = new Catalog(Map.of(), new GameMode[0], Map.of());
+
+        // Inserted in the same priority the old linear scans used: selected keys, selected
+        // names and aliases, then every other source's keys and names, then their aliases
+        private static Catalog build(Map<String, GameMode> selected, Map<TierSourceFactory.TierSources, Map<String, GameMode>> sources) {
+            Map<String, GameMode> byName = new HashMap<>();
+            Set<String> spellings = new HashSet<>();
+
+            ModeRegistry.registerAll(selected.values());
+            for (Map.Entry<String, GameMode> entry : selected.entrySet()) {
+                index(byName, spellings, entry.getKey(), entry.getValue(), false);
+            }
+            for (Map.Entry<String, GameMode> entry : selected.entrySet()) {
+                index(byName, spellings, entry.getKey(), entry.getValue(), true);
+                index(byName, spellings, entry.getValue().name(), entry.getValue(), true);
             }
-        }
 
-        for (Map<String, GameMode> modes : CACHE.values()) {
-            for (Map.Entry<String, GameMode> entry : modes.entrySet()) {
-                if (isSameModeName(entry.getKey(), gameMode) || isSameModeName(entry.getValue().name(), gameMode))
-                    return entry.getValue();
+            for (TierSourceFactory.TierSources source : TierSourceFactory.TierSources.values()) {
+                Map<String, GameMode> modes = sources.get(source);
+                if (modes == null) continue;
+                ModeRegistry.registerAll(modes.values());
+                for (Map.Entry<String, GameMode> entry : modes.entrySet()) {
+                    index(byName, spellings, entry.getKey(), entry.getValue(), false);
+                    index(byName, spellings, entry.getValue().name(), entry.getValue(), false);
+                }
             }
+            for (TierSourceFactory.TierSources source : TierSourceFactory.TierSources.values()) {
+                Map<String, GameMode> modes = sources.get(source);
+                if (modes == null) continue;
+                for (Map.Entry<String, GameMode> entry : modes.entrySet()) {
+                    index(byName, spellings, entry.getKey(), entry.getValue(), true);
+                    index(byName, spellings, entry.getValue().name(), entry.getValue(), true);
+                }
+            }
+
+            // Exact spellings resolve without lower-casing the lookup key
+            for (String spelling : spellings) {
+                GameMode mode = byName.get(spelling.toLowerCase());
+                if (mode != null) byName.putIfAbsent(spelling, mode);
+            }
+
+            return new Catalog(selected, selected.values().toArray(new GameMode[0]), Map.copyOf(byName));
         }
 
-        return null;
-    }
+        private static void index(Map<String, GameMode> byName, Set<String> spellings, String name, GameMode mode, boolean withAliases) {
+            String lower = name.toLowerCase();
+            spellings.add(name);
+            byName.putIfAbsent(lower, mode);
+            if (!withAliases) return;
 
-    private static final Set<Set<String>> MODE_ALIASES = Set.of(
-            Set.of("vanilla", "crystal"),
-            Set.of("nethpot", "nethop", "neth_pot", "netherpot")
-    );
-
-    private static boolean isSameModeName(String a, String b) {
-        if (a.equalsIgnoreCase(b)) return true;
-        String la = a.toLowerCase();
-        String lb = b.toLowerCase();
-        for (Set<String> group : MODE_ALIASES) {
-            if (group.contains(la) && group.contains(lb)) return true;
+            for (String alias : ModeRegistry.aliasesOf(lower)) {
+                byName.putIfAbsent(alias, mode);
+            }
         }
-        return false;
     }
 
     public static GameMode getFromNameForSource(String gameMode, TierSourceFactory.TierSources source) {
@@ -114,6 +156,11 @@ public class GameModeManager {
             if (entry.getKey().equalsIgnoreCase(gameMode))
                 return entry.getValue();
         }
+        // Some sources key modes by id but name them by title, which is what gets persisted
+        for (GameMode mode : modes.values()) {
+            if (mode.name().equalsIgnoreCase(gameMode))
+                return mode;
+        }
         return null;
     }
 
@@ -121,9 +168,25 @@ public class GameModeManager {
         if (CACHE.containsKey(source)) {
             return CompletableFuture.completedFuture(null);
         }
-        return TierSourceFactory.getTierSource(source).getAllModes().thenAccept(modes -> {
+        return WorkQueue.of(WorkQueue.WorkClass.METADATA).submit(source, () -> TierSourceFactory.getTierSource(source).getAllModes()).thenAccept(modes -> {
             if (modes != null) {
                 CACHE.put(source, modes);
+                publish();
+            } else {
+                retryLater(source, () -> loadModesForSource(source));
+            }
+        });
+    }
+
+    // A load that failed or was shed by a full metadata queue completes with null; nothing else
+    // would ask for the catalog again, so it is retried until one load succeeds
+    private static void retryLater(TierSourceFactory.TierSources source, Runnable load) {
+        if (!RETRYING.add(source)) return;
+
+        CompletableFuture.delayedExecutor(RETRY_DELAY_MS, TimeUnit.MILLISECONDS, TierAPI.getExecutor()).execute(() -> {
+            RETRYING.remove(source);
+            if (!CACHE.containsKey(source)) {
+                load.run();
             }
         });
     }
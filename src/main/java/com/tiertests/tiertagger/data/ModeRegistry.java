@@ -0,0 +1,133 @@
+package com.tiertests.tiertagger.data;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Gives every mode name seen from any source a dense id, with aliases collapsed onto the
+// first name of their group, so per-frame code compares ints instead of lower-casing strings
+public class ModeRegistry {
+    private static final List<List<String>> ALIAS_GROUPS = List.of(
+            List.of("vanilla", "crystal"),
+            List.of("neth_pot", "nethpot", "nethop", "netherpot")
+    );
+    private static final Map<String, List<String>> GROUP_OF = new HashMap<>();
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static final Map<GameMode, Integer> MODE_IDS = new ConcurrentHashMap<>();
+    private static final Map<GameMode, Integer> ICON_IDS = new ConcurrentHashMap<>();
+    private static volatile String[] keys = new String[0];
+
+    // Slots identify the exact GameMode a source handed out, so per-player storage can be
+    // indexed densely and still give back that source's own colour and icon
+    private static final Map<GameMode, Integer> SLOTS = new ConcurrentHashMap<>();
+    private static volatile GameMode[] slotModes = new GameMode[0];
+
+    static {
+        for (List<String> group : ALIAS_GROUPS) {
+            for (String alias : group) {
+                GROUP_OF.put(alias, group);
+            }
+        }
+    }
+
+    public static int idOf(GameMode mode) {
+        if (mode == null) return -1;
+        Integer id = MODE_IDS.get(mode);
+        if (id != null) return id;
+        return MODE_IDS.computeIfAbsent(mode, m -> idOf(m.name()));
+    }
+
+    // Icons are keyed by prefix when a source sets one, which is not always the display name
+    public static int iconIdOf(GameMode mode) {
+        if (mode == null) return -1;
+        Integer id = ICON_IDS.get(mode);
+        if (id != null) return id;
+        return ICON_IDS.computeIfAbsent(mode, m -> idOf(m.prefix() != null && !m.prefix().isEmpty() ? m.prefix() : m.name()));
+    }
+
+    public static int idOf(String name) {
+        if (name == null) return -1;
+        String key = canonical(name);
+        Integer id = IDS.get(key);
+        return id != null ? id : register(key);
+    }
+
+    public static String keyOf(int id) {
+        String[] table = keys;
+        return id >= 0 && id < table.length ? table[id] : null;
+    }
+
+    public static int size() {
+        return keys.length;
+    }
+
+    public static int slotOf(GameMode mode) {
+        Integer slot = SLOTS.get(mode);
+        return slot != null ? slot : registerSlot(mode);
+    }
+
+    public static int findSlot(GameMode mode) {
+        if (mode == null) return -1;
+        Integer slot = SLOTS.get(mode);
+        return slot != null ? slot : -1;
+    }
+
+    public static GameMode modeAt(int slot) {
+        GameMode[] table = slotModes;
+        return slot >= 0 && slot < table.length ? table[slot] : null;
+    }
+
+    public static int slotCount() {
+        return slotModes.length;
+    }
+
+    public static boolean isSameMode(GameMode a, GameMode b) {
+        return a != null && b != null && idOf(a) == idOf(b);
+    }
+
+    public static String canonical(String name) {
+        String lower = name.toLowerCase();
+        List<String> group = GROUP_OF.get(lower);
+        return group != null ? group.get(0) : lower;
+    }
+
+    public static List<String> aliasesOf(String name) {
+        return GROUP_OF.getOrDefault(name.toLowerCase(), List.of());
+    }
+
+    private static synchronized int register(String key) {
+        Integer existing = IDS.get(key);
+        if (existing != null) return existing;
+
+        String[] table = Arrays.copyOf(keys, keys.length + 1);
+        int id = table.length - 1;
+        table[id] = key;
+        keys = table;
+        IDS.put(key, id);
+        return id;
+    }
+
+    private static synchronized int registerSlot(GameMode mode) {
+        Integer existing = SLOTS.get(mode);
+        if (existing != null) return existing;
+
+        GameMode[] table = Arrays.copyOf(slotModes, slotModes.length + 1);
+        int slot = table.length - 1;
+        table[slot] = mode;
+        slotModes = table;
+        SLOTS.put(mode, slot);
+        return slot;
+    }
+
+    static void registerAll(Collection<GameMode> modes) {
+        for (GameMode mode : modes) {
+            slotOf(mode);
+            idOf(mode);
+            iconIdOf(mode);
+        }
+    }
+}
@@ -1,68 +1,224 @@
 package com.tiertests.tiertagger.data;
 
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
-import lombok.Setter;
 
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
+// Immutable once built; changes are published by swapping in a new instance from toBuilder()
 @Getter
-@Setter
-@RequiredArgsConstructor
 public class PlayerData {
-    private final Map<GameMode, Tier> tiers = new HashMap<>();
-    private final Map<GameMode, Tier> peakTiers = new HashMap<>();
-    private Region region;
-    private String badge;
-    private long lastUpdated;
-    private int rank;
-    private int points;
+    private static final Tier[] TIERS = Tier.values();
+    private static final byte[] NONE = new byte[0];
+    public static final PlayerData EMPTY = builder().build();
 
-    public void addTier(GameMode gamemode, Tier tier) {
-        tiers.put(gamemode, tier);
+    // Tier ordinal + 1 per ModeRegistry slot, 0 when unranked
+    @Getter(AccessLevel.NONE)
+    private final byte[] tierSlots;
+    @Getter(AccessLevel.NONE)
+    private final byte[] peakTierSlots;
+    @Getter(AccessLevel.NONE)
+    private final int highestSlot;
+    private final Region region;
+    private final String badge;
+    private final long lastUpdated;
+    private final int rank;
+    private final int points;
+
+    private PlayerData(Builder builder) {
+        this.tierSlots = trim(builder.tierSlots);
+        this.peakTierSlots = trim(builder.peakTierSlots);
+        this.highestSlot = findHighest(tierSlots);
+        this.region = builder.region;
+        this.badge = builder.badge;
+        this.lastUpdated = builder.lastUpdated;
+        this.rank = builder.rank;
+        this.points = builder.points;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.tierSlots = tierSlots;
+        builder.peakTierSlots = peakTierSlots;
+        builder.region = region;
+        builder.badge = badge;
+        builder.lastUpdated = lastUpdated;
+        builder.rank = rank;
+        builder.points = points;
+        return builder;
+    }
+
+    public Map<GameMode, Tier> getTiers() {
+        return new TierView(tierSlots);
     }
 
-    public void addPeakTier(GameMode gamemode, Tier tier) {
-        peakTiers.put(gamemode, tier);
+    public Map<GameMode, Tier> getPeakTiers() {
+        return new TierView(peakTierSlots);
     }
 
     public Tier getPeakTier(GameMode gamemode) {
-        return peakTiers.get(gamemode);
+        return tierAt(peakTierSlots, ModeRegistry.findSlot(gamemode));
     }
 
     public Tier getTier(GameMode gamemode) {
-        return tiers.get(gamemode);
+        return tierAt(tierSlots, ModeRegistry.findSlot(gamemode));
     }
 
     public Tier getHighestTier() {
-        Tier highest = null;
-        for (Tier tier : tiers.values()) {
-            if (tier == null)
-                continue;
-            if (highest == null || tier.ordinal() < highest.ordinal()) {
-                highest = tier;
+        return tierAt(tierSlots, highestSlot);
+    }
+
+    public GameMode getHighestTierGamemode() {
+        return highestSlot < 0 ? null : ModeRegistry.modeAt(highestSlot);
+    }
+
+    public boolean isEmpty() {
+        return highestSlot < 0;
+    }
+
+    private static byte[] withSlot(byte[] slots, int slot, Tier tier) {
+        byte[] copy = Arrays.copyOf(slots, Math.max(slots.length, Math.max(slot + 1, ModeRegistry.slotCount())));
+        copy[slot] = (byte) (tier != null ? tier.ordinal() + 1 : 0);
+        return copy;
+    }
+
+    private static byte[] trim(byte[] slots) {
+        int length = slots.length;
+        while (length > 0 && slots[length - 1] == 0) length--;
+        return length == 0 ? NONE : Arrays.copyOf(slots, length);
+    }
+
+    private static Tier tierAt(byte[] slots, int slot) {
+        if (slot < 0 || slot >= slots.length || slots[slot] == 0) return null;
+        return TIERS[slots[slot] - 1];
+    }
+
+    private static int findHighest(byte[] slots) {
+        int highest = -1;
+        for (int slot = 0; slot < slots.length; slot++) {
+            if (slots[slot] != 0 && (highest < 0 || slots[slot] < slots[highest])) {
+                highest = slot;
             }
         }
         return highest;
     }
 
-    public GameMode getHighestTierGamemode() {
-        Tier highest = null;
-        GameMode highestGameMode = null;
-        for (Map.Entry<GameMode, Tier> entry : tiers.entrySet()) {
-            Tier tier = entry.getValue();
-            if (tier == null)
-                continue;
-            if (highest == null || tier.ordinal() < highest.ordinal()) {
-                highest = tier;
-                highestGameMode = entry.getKey();
-            }
+    public static final class Builder {
+        private byte[] tierSlots = NONE;
+        private byte[] peakTierSlots = NONE;
+        private Region region;
+        private String badge;
+        private long lastUpdated;
+        private int rank;
+        private int points;
+
+        private Builder() {
+        }
+
+        public Builder addTier(GameMode gamemode, Tier tier) {
+            tierSlots = withSlot(tierSlots, ModeRegistry.slotOf(gamemode), tier);
+            return this;
+        }
+
+        public Builder addPeakTier(GameMode gamemode, Tier tier) {
+            peakTierSlots = withSlot(peakTierSlots, ModeRegistry.slotOf(gamemode), tier);
+            return this;
+        }
+
+        public Builder region(Region region) {
+            this.region = region;
+            return this;
+        }
+
+        public Builder badge(String badge) {
+            this.badge = badge;
+            return this;
+        }
+
+        public Builder lastUpdated(long lastUpdated) {
+            this.lastUpdated = lastUpdated;
+            return this;
+        }
+
+        public Builder rank(int rank) {
+            this.rank = rank;
+            return this;
+        }
+
+        public Builder points(int points) {
+            this.points = points;
+            return this;
+        }
+
+        public PlayerData build() {
+            return new PlayerData(this);
         }
-        return highestGameMode;
     }
 
-    public boolean isEmpty() {
-        return tiers.isEmpty();
+    private static final class TierView extends AbstractMap<GameMode, Tier> {
+        private final byte[] slots;
+
+        private TierView(byte[] slots) {
+            this.slots = slots;
+        }
+
+        @Override
+        public Tier get(Object key) {
+            return key instanceof GameMode mode ? tierAt(slots, ModeRegistry.findSlot(mode)) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<GameMode, Tier>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<GameMode, Tier>> iterator() {
+                    return new Iterator<>() {
+                        private int next = advance(0);
+
+                        private int advance(int from) {
+                            while (from < slots.length && slots[from] == 0) from++;
+                            return from;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < slots.length;
+                        }
+
+                        @Override
+                        public Entry<GameMode, Tier> next() {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            int slot = next;
+                            next = advance(slot + 1);
+                            return Map.entry(ModeRegistry.modeAt(slot), tierAt(slots, slot));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (byte slot : slots) {
+                        if (slot != 0) size++;
+                    }
+                    return size;
+                }
+            };
+        }
     }
 }
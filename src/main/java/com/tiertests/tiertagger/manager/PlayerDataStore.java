@@ -0,0 +1,303 @@
+package com.tiertests.tiertagger.manager;
+
+import com.tiertests.tiertagger.TierTaggerCommon;
+import com.tiertests.tiertagger.api.TierAPI;
+import com.tiertests.tiertagger.api.TierSourceFactory;
+import com.tiertests.tiertagger.data.GameMode;
+import com.tiertests.tiertagger.data.GameModeManager;
+import com.tiertests.tiertagger.data.PlayerData;
+import com.tiertests.tiertagger.data.Region;
+import com.tiertests.tiertagger.data.Tier;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+public class PlayerDataStore {
+    private static final int MAGIC = 0x54545043;
+    private static final int VERSION = 1;
+    static final int MAX_ENTRIES = 5000;
+    private static final long MAX_AGE = 7L * 24 * 60 * 60 * 1000;
+    private static final long FLUSH_DELAY_MS = 5000;
+    private static final Path CACHE_DIR = Path.of("config", "tiertagger", "cache");
+
+    private static final Map<TierSourceFactory.TierSources, SourceStore> STORES = new EnumMap<>(TierSourceFactory.TierSources.class);
+
+    static {
+        for (TierSourceFactory.TierSources source : TierSourceFactory.TierSources.values()) {
+            STORES.put(source, new SourceStore(CACHE_DIR.resolve(source.name().toLowerCase() + ".bin")));
+        }
+    }
+
+    // Entries stay encoded until they are looked up, so loading a file never touches GameModeManager
+    static class SourceStore {
+        private final Path path;
+        final Map<UUID, byte[]> entries = new ConcurrentHashMap<>();
+        private final AtomicBoolean loadStarted = new AtomicBoolean(false);
+        private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+        private volatile boolean loaded = false;
+        private volatile boolean dirty = false;
+
+        SourceStore(Path path) {
+            this.path = path;
+        }
+    }
+
+    public static void preload(TierSourceFactory.TierSources source) {
+        SourceStore store = STORES.get(source);
+        if (store.loadStarted.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> load(store), TierAPI.getExecutor());
+        }
+    }
+
+    public static PlayerData get(TierSourceFactory.TierSources source, UUID uuid) {
+        SourceStore store = STORES.get(source);
+        if (!store.loaded) {
+            preload(source);
+            return null;
+        }
+        return read(store, source, uuid);
+    }
+
+    static PlayerData read(SourceStore store, TierSourceFactory.TierSources source, UUID uuid) {
+        byte[] encoded = store.entries.get(uuid);
+        if (encoded == null) return null;
+
+        try {
+            PlayerData data = decode(source, encoded);
+            if (System.currentTimeMillis() - data.getLastUpdated() > MAX_AGE) {
+                store.entries.remove(uuid, encoded);
+                return null;
+            }
+            return data.isEmpty() ? null : data;
+        } catch (IOException | IllegalArgumentException e) {
+            store.entries.remove(uuid, encoded);
+            return null;
+        }
+    }
+
+    public static void put(TierSourceFactory.TierSources source, UUID uuid, PlayerData data) {
+        if (data == null || data.isEmpty()) return;
+
+        SourceStore store = STORES.get(source);
+        if (!add(store, uuid, data)) return;
+
+        if (store.loaded) {
+            scheduleFlush(store);
+        } else {
+            preload(source);
+        }
+    }
+
+    static boolean add(SourceStore store, UUID uuid, PlayerData data) {
+        try {
+            store.entries.put(uuid, encode(data));
+        } catch (IOException e) {
+            TierTaggerCommon.LOGGER.debug("Could not encode player data for {}: {}", uuid, e.getMessage());
+            return false;
+        }
+
+        if (store.entries.size() > MAX_ENTRIES) {
+            trim(store);
+        }
+        store.dirty = true;
+        return true;
+    }
+
+    // Writes every loaded store now, for when the game is closing or leaving a server and a
+    // scheduled flush may never run
+    public static void flushAll() {
+        for (SourceStore store : STORES.values()) {
+            if (store.loaded) {
+                flush(store);
+            }
+        }
+    }
+
+    private static void scheduleFlush(SourceStore store) {
+        if (store.flushScheduled.compareAndSet(false, true)) {
+            CompletableFuture.delayedExecutor(FLUSH_DELAY_MS, TimeUnit.MILLISECONDS, TierAPI.getExecutor())
+                    .execute(() -> flush(store));
+        }
+    }
+
+    static void load(SourceStore store) {
+        try {
+            if (Files.exists(store.path)) {
+                ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(store.path));
+                readFile(store, file);
+            }
+        } catch (Exception e) {
+            TierTaggerCommon.LOGGER.warn("Ignoring unreadable player cache {}: {}", store.path, e.getMessage());
+        } finally {
+            store.loaded = true;
+            if (store.dirty) {
+                scheduleFlush(store);
+            }
+        }
+    }
+
+    private static void readFile(SourceStore store, ByteBuffer file) throws IOException {
+        if (file.remaining() < 20 || file.getInt() != MAGIC) {
+            throw new IOException("not a player cache file");
+        }
+        if (file.getInt() != VERSION) {
+            throw new IOException("unsupported cache version");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(file.array(), 0, file.limit() - Long.BYTES);
+        if (crc.getValue() != file.getLong(file.limit() - Long.BYTES)) {
+            throw new IOException("checksum mismatch");
+        }
+
+        int count = file.getInt();
+        for (int i = 0; i < count; i++) {
+            UUID uuid = new UUID(file.getLong(), file.getLong());
+            byte[] encoded = new byte[file.getInt()];
+            file.get(encoded);
+            // Anything fetched while the file was loading is newer than what is on disk
+            store.entries.putIfAbsent(uuid, encoded);
+        }
+        if (store.entries.size() > MAX_ENTRIES) {
+            trim(store);
+        }
+    }
+
+    // Keeps the most recently updated entries; lastUpdated is the first field of every entry
+    private static List<Map.Entry<UUID, byte[]>> trim(SourceStore store) {
+        List<Map.Entry<UUID, byte[]>> entries = new ArrayList<>(store.entries.entrySet());
+        if (entries.size() <= MAX_ENTRIES) return entries;
+
+        entries.sort(Comparator.comparingLong((Map.Entry<UUID, byte[]> e) -> ByteBuffer.wrap(e.getValue()).getLong()).reversed());
+        for (Map.Entry<UUID, byte[]> evicted : entries.subList(MAX_ENTRIES, entries.size())) {
+            store.entries.remove(evicted.getKey(), evicted.getValue());
+        }
+        return entries.subList(0, MAX_ENTRIES);
+    }
+
+    // A scheduled flush and flushAll can overlap, and both write the same temp file
+    static void flush(SourceStore store) {
+        synchronized (store) {
+            store.flushScheduled.set(false);
+            if (!store.dirty) return;
+            store.dirty = false;
+            write(store);
+        }
+    }
+
+    private static void write(SourceStore store) {
+        try {
+            List<Map.Entry<UUID, byte[]>> entries = trim(store);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (Map.Entry<UUID, byte[]> entry : entries) {
+                out.writeLong(entry.getKey().getMostSignificantBits());
+                out.writeLong(entry.getKey().getLeastSignificantBits());
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeLong(crc.getValue());
+
+            Files.createDirectories(store.path.getParent());
+            Path temp = store.path.resolveSibling(store.path.getFileName() + ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, store.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            TierTaggerCommon.LOGGER.warn("Could not write player cache {}: {}", store.path, e.getMessage());
+        }
+    }
+
+    private static byte[] encode(PlayerData data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeLong(data.getLastUpdated());
+        out.writeInt(data.getRank());
+        out.writeInt(data.getPoints());
+
+        Region region = data.getRegion();
+        out.writeBoolean(region != null);
+        if (region != null) {
+            out.writeUTF(region.name());
+            out.writeUTF(region.shortPrefix());
+        }
+
+        out.writeBoolean(data.getBadge() != null);
+        if (data.getBadge() != null) {
+            out.writeUTF(data.getBadge());
+        }
+
+        writeTiers(out, data.getTiers());
+        writeTiers(out, data.getPeakTiers());
+        return bytes.toByteArray();
+    }
+
+    private static void writeTiers(DataOutputStream out, Map<GameMode, Tier> tiers) throws IOException {
+        Map<GameMode, Tier> snapshot = Map.copyOf(tiers);
+        out.writeShort(snapshot.size());
+        for (Map.Entry<GameMode, Tier> entry : snapshot.entrySet()) {
+            out.writeUTF(entry.getKey().name());
+            out.writeUTF(entry.getValue().name());
+        }
+    }
+
+    // Modes resolve against this source's catalog; another source may use the same name
+    private static PlayerData decode(TierSourceFactory.TierSources source, byte[] encoded) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+        PlayerData.Builder data = PlayerData.builder()
+                .lastUpdated(in.readLong())
+                .rank(in.readInt())
+                .points(in.readInt());
+
+        if (in.readBoolean()) {
+            data.region(new Region(in.readUTF(), in.readUTF()));
+        }
+        if (in.readBoolean()) {
+            data.badge(in.readUTF());
+        }
+
+        int tierCount = in.readShort();
+        for (int i = 0; i < tierCount; i++) {
+            GameMode mode = GameModeManager.getFromNameForSource(in.readUTF(), source);
+            Tier tier = Tier.valueOf(in.readUTF());
+            if (mode != null) {
+                data.addTier(mode, tier);
+            }
+        }
+
+        int peakCount = in.readShort();
+        for (int i = 0; i < peakCount; i++) {
+            GameMode mode = GameModeManager.getFromNameForSource(in.readUTF(), source);
+            Tier tier = Tier.valueOf(in.readUTF());
+            if (mode != null) {
+                data.addPeakTier(mode, tier);
+            }
+        }
+        return data.build();
+    }
+}
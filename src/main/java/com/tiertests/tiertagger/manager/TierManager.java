@@ -2,22 +2,48 @@ package com.tiertests.tiertagger.manager;
 
 import com.tiertests.tiertagger.api.TierAPI;
 import com.tiertests.tiertagger.api.TierSourceFactory;
+import com.tiertests.tiertagger.api.http.CircuitBreaker;
+import com.tiertests.tiertagger.api.http.FetchPriority;
+import com.tiertests.tiertagger.api.http.WorkQueue;
 import com.tiertests.tiertagger.config.ModConfig;
 import com.tiertests.tiertagger.data.GameModeManager;
 import com.tiertests.tiertagger.data.PlayerData;
+import com.tiertests.tiertagger.util.BoundedCache;
+import com.tiertests.tiertagger.util.Metrics;
 import net.minecraft.client.player.AbstractClientPlayer;
 
 import com.tiertests.tiertagger.TierTaggerCommon;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
 import com.tiertests.tiertagger.config.DisplayMode;
 
 public class TierManager {
-    private static final Map<UUID, PlayerData> cache = new ConcurrentHashMap<>();
-    private static final Map<UUID, Map<TierSourceFactory.TierSources, PlayerData>> crossSourceCache = new ConcurrentHashMap<>();
-    private static final Set<String> pendingCrossFetches = ConcurrentHashMap.newKeySet();
-    private static final long CACHE_DURATION = 5 * 60 * 1000;
+    private static final BoundedCache<UUID, PlayerData> cache =
+            new BoundedCache<>("players", ModConfig::getPlayerCacheSize);
+    private static final BoundedCache<UUID, CrossSourceIndex> crossSourceCache =
+            new BoundedCache<>("cross-source", ModConfig::getPlayerCacheSize);
+    private static final Map<FetchKey, CompletableFuture<PlayerData>> inFlight = new ConcurrentHashMap<>();
+    private static final Map<FetchKey, Long> lastRevalidation = new ConcurrentHashMap<>();
+    private static final BoundedCache<FetchKey, NegativeEntry> unranked =
+            new BoundedCache<>("unranked", ModConfig::getPlayerCacheSize);
+    private static final Metrics.CacheCounter lookups = Metrics.cache("tier-data");
+    private static final long SOFT_TTL = 5 * 60 * 1000;
+    private static final long REFRESH_JITTER = 60 * 1000;
+    private static final long HARD_TTL = 30 * 60 * 1000;
+    private static final long REVALIDATE_RETRY = 30 * 1000;
+    private static final long STORED_GRACE = 2 * REVALIDATE_RETRY;
+    private static final long NEGATIVE_TTL = 2 * 60 * 1000;
+    private static final long MAX_NEGATIVE_TTL = 60 * 60 * 1000;
+
+    private static final AtomicInteger crossSourceEpoch = new AtomicInteger();
+
+    private record FetchKey(TierSourceFactory.TierSources source, UUID uuid) {}
+
+    private record NegativeEntry(long expiresAt, int misses) {}
 
     public static PlayerData getPlayerData(AbstractClientPlayer player) {
         return getPlayerData(player.getUUID());
@@ -27,47 +53,250 @@ public class TierManager {
         PlayerData data = cache.get(uuid);
         if (data == null) return null;
 
-        long age = System.currentTimeMillis() - data.getLastUpdated();
-        if (age < CACHE_DURATION) {
-            return data;
-        }
-
-        return null;
+        return isUsable(data) ? data : null;
     }
 
     public static boolean hasPlayerData(UUID uuid) {
         PlayerData data = cache.get(uuid);
         if (data == null) return false;
 
-        long age = System.currentTimeMillis() - data.getLastUpdated();
-        return !data.isEmpty() && age < CACHE_DURATION;
+        return !data.isEmpty() && isUsable(data);
+    }
+
+    public static boolean needsRefresh(UUID uuid) {
+        PlayerData data = cache.get(uuid);
+        if (data == null || data.isEmpty()) {
+            return !isKnownUnranked(ModConfig.getTierSource(), uuid);
+        }
+        return isStale(uuid, data);
+    }
+
+    public static boolean isKnownUnranked(TierSourceFactory.TierSources source, UUID uuid) {
+        NegativeEntry entry = unranked.get(new FetchKey(source, uuid));
+        return entry != null && System.currentTimeMillis() < entry.expiresAt();
+    }
+
+    // Each consecutive confirmed miss doubles how long the player is left alone
+    static void recordUnranked(TierSourceFactory.TierSources source, UUID uuid) {
+        FetchKey key = new FetchKey(source, uuid);
+        NegativeEntry previous = unranked.get(key);
+        int misses = previous == null ? 1 : previous.misses() + 1;
+        long ttl = Math.min(MAX_NEGATIVE_TTL, NEGATIVE_TTL << Math.min(misses - 1, 16));
+        unranked.put(key, new NegativeEntry(System.currentTimeMillis() + ttl, misses));
     }
 
     public static PlayerData getCachedData(UUID uuid) {
         PlayerData data = cache.get(uuid);
 
         if (data != null) {
-            long age = System.currentTimeMillis() - data.getLastUpdated();
-            if (age < CACHE_DURATION) {
+            if (isUsable(data)) {
                 return data;
             }
-            cache.remove(uuid);
+            cache.remove(uuid, data);
         }
 
         return null;
     }
 
+    // Past the soft deadline data still renders, but gets revalidated. The deadline is
+    // jittered per entry so a lobby fetched in one burst does not expire in one burst.
+    private static boolean isStale(UUID uuid, PlayerData data) {
+        return System.currentTimeMillis() >= softDeadline(uuid, data);
+    }
+
+    private static long softDeadline(UUID uuid, PlayerData data) {
+        long jitter = Math.floorMod(Objects.hash(uuid, data.getLastUpdated()), REFRESH_JITTER);
+        return data.getLastUpdated() + SOFT_TTL + jitter;
+    }
+
+    // When needsRefresh is next worth asking again for this player; always in the future, since
+    // data past its deadline stays stale until the revalidation started for it lands
+    public static long refreshDueAt(UUID uuid) {
+        long now = System.currentTimeMillis();
+        PlayerData data = cache.get(uuid);
+        if (data != null && !data.isEmpty()) {
+            // A revalidation already started is not retried before REVALIDATE_RETRY anyway
+            long deadline = softDeadline(uuid, data);
+            Long revalidated = lastRevalidation.get(new FetchKey(ModConfig.getTierSource(), uuid));
+            if (revalidated != null) {
+                deadline = Math.max(deadline, revalidated + REVALIDATE_RETRY);
+            }
+            return deadline > now ? deadline : now + REVALIDATE_RETRY;
+        }
+
+        NegativeEntry entry = unranked.get(new FetchKey(ModConfig.getTierSource(), uuid));
+        if (entry != null && entry.expiresAt() > now) {
+            return entry.expiresAt();
+        }
+        return now + REVALIDATE_RETRY;
+    }
+
+    private static boolean isUsable(PlayerData data) {
+        return System.currentTimeMillis() - data.getLastUpdated() < HARD_TTL;
+    }
+
+    public static PlayerData getCachedData(TierSourceFactory.TierSources source, UUID uuid) {
+        if (source == ModConfig.getTierSource()) {
+            return getCachedData(uuid);
+        }
+        return getCrossSourceData(uuid, source);
+    }
+
     public static void cachePlayerData(UUID uuid, PlayerData data) {
         if (data != null) {
             cache.put(uuid, data);
         }
     }
 
-    public static void fetchPlayerData(UUID uuid, String name) {
-        TierAPI.fetchPlayerData(uuid, name).thenAccept(data -> {
+    public static void cachePlayerData(TierSourceFactory.TierSources source, UUID uuid, PlayerData data) {
+        if (data != null) {
+            storeInMemory(source, uuid, data);
+        }
+    }
+
+    public static CompletableFuture<PlayerData> loadPlayerData(TierSourceFactory.TierSources source, UUID uuid, String name) {
+        return loadPlayerData(source, uuid, name, false);
+    }
+
+    public static CompletableFuture<PlayerData> loadPlayerData(TierSourceFactory.TierSources source, UUID uuid, String name, boolean skipCache) {
+        if (isKnownUnranked(source, uuid)) {
+            lookups.record(Metrics.Outcome.NEGATIVE);
+            return CompletableFuture.completedFuture(PlayerData.EMPTY);
+        }
+
+        if (!skipCache) {
+            PlayerData cached = getCachedData(source, uuid);
+            if (cached != null) {
+                if (isStale(uuid, cached)) {
+                    lookups.record(Metrics.Outcome.STALE);
+                    revalidate(source, uuid, name);
+                } else {
+                    lookups.record(Metrics.Outcome.HIT);
+                }
+                return CompletableFuture.completedFuture(cached);
+            }
+
+            PlayerData stored = PlayerDataStore.get(source, uuid);
+            if (stored != null) {
+                // Serve the previous session's data right away and refresh it in the background. It
+                // keeps its age, so it is stale and revalidated like any other; data past the hard
+                // TTL is held just inside it, drawn until the refresh lands or dropped if it fails.
+                long oldest = System.currentTimeMillis() - HARD_TTL + STORED_GRACE;
+                if (stored.getLastUpdated() < oldest) {
+                    stored = stored.toBuilder().lastUpdated(oldest).build();
+                }
+                storeInMemory(source, uuid, stored);
+                lookups.record(Metrics.Outcome.STALE);
+                fetchFromSource(source, uuid, name);
+                return CompletableFuture.completedFuture(stored);
+            }
+        }
+
+        lookups.record(Metrics.Outcome.MISS);
+        return fetchFromSource(source, uuid, name);
+    }
+
+    private static void revalidate(TierSourceFactory.TierSources source, UUID uuid, String name) {
+        FetchKey key = new FetchKey(source, uuid);
+        long now = System.currentTimeMillis();
+        Long last = lastRevalidation.get(key);
+        if (last != null && now - last < REVALIDATE_RETRY) return;
+
+        lastRevalidation.put(key, now);
+        fetchFromSource(source, uuid, name);
+    }
+
+    private static CompletableFuture<PlayerData> fetchFromSource(TierSourceFactory.TierSources source, UUID uuid, String name) {
+        FetchKey key = new FetchKey(source, uuid);
+        CompletableFuture<PlayerData> existing = inFlight.get(key);
+        if (existing != null) return existing;
+
+        CompletableFuture<PlayerData> future = new CompletableFuture<>();
+        existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) return existing;
+
+        WorkQueue.WorkClass workClass = FetchPriority.current() == FetchPriority.ENRICHMENT
+                ? WorkQueue.WorkClass.ENRICHMENT
+                : WorkQueue.WorkClass.TIER_DATA;
+        WorkQueue.of(workClass).submit(key, () -> TierSourceFactory.getTierSource(source).fetchPlayerData(uuid, name)).whenComplete((data, ex) -> {
+            if (ex == null) {
+                storeFetchedData(source, uuid, data);
+            }
+            inFlight.remove(key, future);
+            if (ex != null) {
+                future.completeExceptionally(ex);
+            } else {
+                future.complete(data);
+            }
+        });
+        return future;
+    }
+
+    // Completes once a fetch in flight for this player has stored its result, or at once if none is,
+    // so enrichment started from inside a fetch is not applied before the entry it updates exists
+    public static CompletableFuture<Void> whenStored(TierSourceFactory.TierSources source, UUID uuid) {
+        CompletableFuture<PlayerData> fetch = inFlight.get(new FetchKey(source, uuid));
+        if (fetch == null) return CompletableFuture.completedFuture(null);
+        return fetch.handle((data, ex) -> null);
+    }
+
+    private static void storeFetchedData(TierSourceFactory.TierSources source, UUID uuid, PlayerData data) {
+        if (data == null) return;
+
+        FetchKey key = new FetchKey(source, uuid);
+        if (data.isEmpty()) {
+            recordUnranked(source, uuid);
+            return;
+        }
+
+        unranked.remove(key);
+        lastRevalidation.remove(key);
+        storeInMemory(source, uuid, data);
+        PlayerDataStore.put(source, uuid, data);
+    }
+
+    private static void storeInMemory(TierSourceFactory.TierSources source, UUID uuid, PlayerData data) {
+        if (source == ModConfig.getTierSource()) {
+            cache.put(uuid, data);
+        } else {
+            crossSourceCache.compute(uuid, (k, index) -> (index != null ? index : CrossSourceIndex.EMPTY).with(source, data));
+            crossSourceEpoch.incrementAndGet();
+        }
+    }
+
+    // Readers only ever see whole snapshots; an update that loses a race is retried on the winner.
+    // An update returning the snapshot it was given changes nothing and is not stored.
+    public static void updatePlayerData(TierSourceFactory.TierSources source, UUID uuid, UnaryOperator<PlayerData> update) {
+        PlayerData updated = null;
+        if (source == ModConfig.getTierSource()) {
+            PlayerData current;
+            do {
+                current = cache.get(uuid);
+                if (current == null) return;
+                updated = update.apply(current);
+                if (updated == current) return;
+            } while (!cache.replace(uuid, current, updated));
+        } else {
+            PlayerData[] result = new PlayerData[1];
+            crossSourceCache.compute(uuid, (k, index) -> {
+                PlayerData current = index != null ? index.get(source) : null;
+                if (current == null) return index;
+                PlayerData next = update.apply(current);
+                if (next == current) return index;
+                result[0] = next;
+                return index.with(source, next);
+            });
+            updated = result[0];
+            if (updated == null) return;
+            crossSourceEpoch.incrementAndGet();
+        }
+        PlayerDataStore.put(source, uuid, updated);
+    }
+
+    public static CompletableFuture<Void> fetchPlayerData(UUID uuid, String name) {
+        return TierAPI.fetchPlayerData(uuid, name).thenAccept(data -> {
             if (data != null && !data.isEmpty()) {
-                cache.put(uuid, data);
-                fetchTierTestsBadge(uuid, name, data);
+                fetchTierTestsBadge(uuid, name);
 
                 DisplayMode mode = ModConfig.getTierDisplayMode();
                 if (mode == DisplayMode.CROSS_API_SAME_MODE || mode == DisplayMode.CROSS_API_ANY_MODE) {
@@ -80,69 +309,87 @@ public class TierManager {
         });
     }
 
-    private static void fetchTierTestsBadge(UUID uuid, String name, PlayerData target) {
-        if (ModConfig.getTierSource() == TierSourceFactory.TierSources.TIER_TESTS) return;
+    private static void fetchTierTestsBadge(UUID uuid, String name) {
+        TierSourceFactory.TierSources target = ModConfig.getTierSource();
+        if (target == TierSourceFactory.TierSources.TIER_TESTS) return;
 
-        TierSourceFactory.getTierSource(TierSourceFactory.TierSources.TIER_TESTS)
-                .fetchPlayerData(uuid, name)
+        FetchPriority.supplyAs(FetchPriority.ENRICHMENT, () -> loadPlayerData(TierSourceFactory.TierSources.TIER_TESTS, uuid, name))
                 .thenAccept(ttData -> {
-                    if (ttData != null && ttData.getBadge() != null && !ttData.getBadge().isEmpty()) {
-                        target.setBadge(ttData.getBadge());
-                    }
+                    if (ttData == null || ttData.getBadge() == null || ttData.getBadge().isEmpty()) return;
+
+                    // A new snapshot would invalidate the player's cached tags and rewrite their disk entry
+                    String badge = ttData.getBadge();
+                    updatePlayerData(target, uuid, data -> badge.equals(data.getBadge()) ? data : data.toBuilder().badge(badge).build());
                 });
     }
 
     public static void clearCache() {
         cache.clear();
         crossSourceCache.clear();
-        pendingCrossFetches.clear();
+        inFlight.clear();
+        lastRevalidation.clear();
     }
 
-    public static void cleanupCache(List<AbstractClientPlayer> currentPlayers) {
-        Set<UUID> currentUUIDs = new HashSet<>();
-        for (AbstractClientPlayer player : currentPlayers) {
-            if (player != null) {
-                currentUUIDs.add(player.getUUID());
-            }
+    // Background work for a player who has left; a lookup the user asked for is left alone
+    public static void cancelFetches(UUID uuid) {
+        for (TierSourceFactory.TierSources source : TierSourceFactory.TierSources.values()) {
+            FetchKey key = new FetchKey(source, uuid);
+            WorkQueue.of(WorkQueue.WorkClass.TIER_DATA).cancel(key);
+            WorkQueue.of(WorkQueue.WorkClass.ENRICHMENT).cancel(key);
         }
+    }
 
-        cache.keySet().removeIf(uuid -> !currentUUIDs.contains(uuid));
-        crossSourceCache.keySet().removeIf(uuid -> !currentUUIDs.contains(uuid));
+    public static void cleanupCache(Set<UUID> currentUUIDs) {
+        cache.removeIf((uuid, data) -> !currentUUIDs.contains(uuid));
+        crossSourceCache.removeIf((uuid, data) -> !currentUUIDs.contains(uuid));
+        lastRevalidation.keySet().removeIf(key -> !currentUUIDs.contains(key.uuid()));
+        long now = System.currentTimeMillis();
+        unranked.removeIf((key, entry) -> now >= entry.expiresAt() && !currentUUIDs.contains(key.uuid()));
     }
 
     public static PlayerData getCrossSourceData(UUID uuid, TierSourceFactory.TierSources source) {
-        Map<TierSourceFactory.TierSources, PlayerData> sourceMap = crossSourceCache.get(uuid);
-        if (sourceMap == null) return null;
-        PlayerData data = sourceMap.get(source);
-        if (data == null) return null;
-        long age = System.currentTimeMillis() - data.getLastUpdated();
-        if (age >= CACHE_DURATION) {
-            sourceMap.remove(source);
-            return null;
-        }
-        return data;
+        CrossSourceIndex index = getCrossSourceIndex(uuid);
+        return index != null ? index.get(source) : null;
+    }
+
+    public static int getCrossSourceEpoch() {
+        return crossSourceEpoch.get();
     }
 
     public static Map<TierSourceFactory.TierSources, PlayerData> getAllCrossSourceData(UUID uuid) {
-        return crossSourceCache.getOrDefault(uuid, Collections.emptyMap());
+        CrossSourceIndex index = getCrossSourceIndex(uuid);
+        return index != null ? index.getSources() : Collections.emptyMap();
+    }
+
+    // Sources past the hard TTL are dropped before the index is handed out, so its merged
+    // best tiers never include data getCachedData would already refuse
+    public static CrossSourceIndex getCrossSourceIndex(UUID uuid) {
+        CrossSourceIndex index = crossSourceCache.get(uuid);
+        if (index == null) return null;
+
+        for (Map.Entry<TierSourceFactory.TierSources, PlayerData> entry : index.getSources().entrySet()) {
+            if (isUsable(entry.getValue())) continue;
+
+            TierSourceFactory.TierSources source = entry.getKey();
+            PlayerData data = entry.getValue();
+            crossSourceCache.compute(uuid, (k, current) -> current != null ? current.without(source, data) : null);
+            crossSourceEpoch.incrementAndGet();
+            return getCrossSourceIndex(uuid);
+        }
+        return index;
     }
 
     public static void fetchCrossSourceData(UUID uuid, String name, TierSourceFactory.TierSources excludeSource) {
         for (TierSourceFactory.TierSources source : TierSourceFactory.TierSources.values()) {
             if (source == excludeSource) continue;
-            String key = uuid + ":" + source.name();
-            if (pendingCrossFetches.contains(key)) continue;
-            if (getCrossSourceData(uuid, source) != null) continue;
+            if (CircuitBreaker.forSource(source).isOpen()) continue;
+            if (isKnownUnranked(source, uuid)) continue;
+            PlayerData existing = getCrossSourceData(uuid, source);
+            if (existing != null && !isStale(uuid, existing)) continue;
 
-            pendingCrossFetches.add(key);
             GameModeManager.loadModesForSource(source).thenCompose(v ->
-                TierSourceFactory.getTierSource(source).fetchPlayerData(uuid, name)
-            ).thenAccept(data -> {
-                pendingCrossFetches.remove(key);
-                if (data != null && !data.isEmpty()) {
-                    crossSourceCache.computeIfAbsent(uuid, k -> new ConcurrentHashMap<>()).put(source, data);
-                }
-            });
+                FetchPriority.supplyAs(FetchPriority.ENRICHMENT, () -> loadPlayerData(source, uuid, name))
+            );
         }
     }
 }
@@ -2,6 +2,7 @@ package com.tiertests.tiertagger.menu;
 
 import com.tiertests.tiertagger.TierTaggerCommon;
 import com.tiertests.tiertagger.api.TierAPI;
+import com.tiertests.tiertagger.api.http.FetchPriority;
 import com.tiertests.tiertagger.config.ModConfig;
 import com.tiertests.tiertagger.data.GameMode;
 import com.tiertests.tiertagger.data.GameModeManager;
@@ -204,7 +205,7 @@ public class ConfigScreen extends Screen {
 
         fetchingSelf = true;
         selfData = null;
-        TierAPI.fetchPlayerData(uuid, name).thenAccept(data -> {
+        FetchPriority.supplyAs(FetchPriority.USER, () -> TierAPI.fetchPlayerData(uuid, name)).thenAccept(data -> {
             mc.execute(() -> {
                 fetchingSelf = false;
                 if (data != null && !data.isEmpty()) {
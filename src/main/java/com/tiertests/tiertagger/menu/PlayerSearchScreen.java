@@ -2,6 +2,7 @@ package com.tiertests.tiertagger.menu;
 
 import com.tiertests.tiertagger.api.TierAPI;
 import com.tiertests.tiertagger.api.TierSourceFactory;
+import com.tiertests.tiertagger.api.http.FetchPriority;
 import com.tiertests.tiertagger.data.GameMode;
 import com.tiertests.tiertagger.data.GameModeManager;
 import com.tiertests.tiertagger.data.PlayerData;
@@ -136,7 +137,7 @@ public class PlayerSearchScreen extends Screen {
         }
 
         CompletableFuture.allOf(modeLoads).thenCompose(v ->
-                TierAPI.fetchAllSourcesPlayerData(username)
+                FetchPriority.supplyAs(FetchPriority.USER, () -> TierAPI.fetchAllSourcesPlayerData(username))
         ).thenAccept(results -> {
             minecraft.execute(() -> {
                 searching = false;
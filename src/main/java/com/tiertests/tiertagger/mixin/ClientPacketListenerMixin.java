@@ -0,0 +1,33 @@
+package com.tiertests.tiertagger.mixin;
+
+import com.tiertests.tiertagger.manager.RosterTracker;
+import net.minecraft.client.multiplayer.ClientPacketListener;
+import net.minecraft.network.protocol.game.ClientboundPlayerInfoRemovePacket;
+import net.minecraft.network.protocol.game.ClientboundPlayerInfoUpdatePacket;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.UUID;
+
+@Mixin(ClientPacketListener.class)
+public class ClientPacketListenerMixin {
+
+    // TAIL is only reached on the client thread; the network thread's pass bails out earlier
+    @Inject(method = "handlePlayerInfoUpdate", at = @At("TAIL"))
+    private void tiertagger$onTabAdd(ClientboundPlayerInfoUpdatePacket packet, CallbackInfo ci) {
+        for (ClientboundPlayerInfoUpdatePacket.Entry entry : packet.newEntries()) {
+            if (entry.profile() != null) {
+                RosterTracker.onTabAdd(entry.profileId(), entry.profile().getName());
+            }
+        }
+    }
+
+    @Inject(method = "handlePlayerInfoRemove", at = @At("TAIL"))
+    private void tiertagger$onTabRemove(ClientboundPlayerInfoRemovePacket packet, CallbackInfo ci) {
+        for (UUID uuid : packet.profileIds()) {
+            RosterTracker.onTabRemove(uuid);
+        }
+    }
+}
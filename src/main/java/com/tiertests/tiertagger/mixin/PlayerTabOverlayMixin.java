@@ -1,17 +1,17 @@
 package com.tiertests.tiertagger.mixin;
 
-import com.tiertests.tiertagger.config.DisplayType;
 import com.tiertests.tiertagger.config.ModConfig;
-import com.tiertests.tiertagger.manager.TierManager;
+import com.tiertests.tiertagger.util.Metrics;
 import com.tiertests.tiertagger.util.TierTagUtil;
-import net.minecraft.ChatFormatting;
+import net.minecraft.client.gui.Font;
 import net.minecraft.client.gui.components.PlayerTabOverlay;
 import net.minecraft.client.multiplayer.PlayerInfo;
 import net.minecraft.network.chat.Component;
-import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.FormattedText;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 import java.util.UUID;
@@ -24,19 +24,18 @@ public class PlayerTabOverlayMixin {
         if (!ModConfig.isShowInTab()) return;
 
         UUID uuid = entry.getProfile().getId();
-        if (!TierManager.hasPlayerData(uuid)) return;
-
-        MutableComponent tag = TierTagUtil.buildTabComponent(uuid);
-        if (tag == null) return;
-
-        Component original = cir.getReturnValue();
-        boolean prefix = ModConfig.getDisplayType() == DisplayType.PREFIX;
-        Component separator = Component.literal(" | ").withStyle(ChatFormatting.GRAY);
+        long start = Metrics.renderStart();
+        cir.setReturnValue(TierTagUtil.decorateTabName(uuid, cir.getReturnValue()));
+        Metrics.renderEnd(start);
+    }
 
-        if (prefix) {
-            cir.setReturnValue(tag.append(separator).append(original));
-        } else {
-            cir.setReturnValue(original.copy().append(separator).append(tag));
-        }
+    // Optional: if the width call moves, tab still works and just measures every frame
+    @Redirect(method = "render", at = @At(value = "INVOKE",
+            target = "Lnet/minecraft/client/gui/Font;width(Lnet/minecraft/network/chat/FormattedText;)I"), require = 0)
+    private int tiertagger$cachedWidth(Font font, FormattedText text) {
+        long start = Metrics.renderStart();
+        int width = TierTagUtil.getTabNameWidth(font, text);
+        Metrics.renderEnd(start);
+        return width;
     }
 }
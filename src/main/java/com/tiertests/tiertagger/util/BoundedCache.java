@@ -0,0 +1,323 @@
+package com.tiertests.tiertagger.util;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+// Segmented LRU: new entries start on probation and are promoted to the protected segment
+// on their second hit, so a burst of one-off lookups cannot flush the players seen every tick.
+// Reads never lock: a hit is recorded in a small ring buffer and replayed into the segments
+// by whichever thread next writes or fills the buffer. A read that lands on a slot not yet
+// drained overwrites it, so under heavy load promotion works from a sample of hits.
+public class BoundedCache<K, V> {
+    private static final List<BoundedCache<?, ?>> CACHES = new CopyOnWriteArrayList<>();
+    private static final float PROTECTED_RATIO = 0.8f;
+    private static final int READ_BUFFER_SIZE = 128;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final int DRAIN_THRESHOLD = 32;
+
+    @Getter
+    private final String name;
+    private final IntSupplier capacity;
+    private final BiConsumer<K, V> onRemoval;
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Node<K, V>> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong reads = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Segment order, guarded by lock; head is the eldest entry
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Segment<K, V> probation = new Segment<>();
+    private final Segment<K, V> protectedSegment = new Segment<>();
+
+    public record Stats(String name, int size, int capacity, long hits, long misses, long evictions) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        volatile V value;
+        Node<K, V> prev;
+        Node<K, V> next;
+        Segment<K, V> segment;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final class Segment<K, V> {
+        final Node<K, V> head = new Node<>(null, null);
+        int size;
+
+        Segment() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
+            node.segment = this;
+            size++;
+        }
+
+        void unlink(Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            node.segment = null;
+            size--;
+        }
+
+        Node<K, V> first() {
+            return head.next != head ? head.next : null;
+        }
+    }
+
+    public BoundedCache(String name, IntSupplier capacity) {
+        this(name, capacity, (k, v) -> {});
+    }
+
+    public BoundedCache(String name, IntSupplier capacity, BiConsumer<K, V> onRemoval) {
+        this.name = name;
+        this.capacity = capacity;
+        this.onRemoval = onRemoval;
+        CACHES.add(this);
+    }
+
+    public static List<Stats> getAllStats() {
+        List<Stats> stats = new ArrayList<>();
+        for (BoundedCache<?, ?> cache : CACHES) {
+            stats.add(cache.getStats());
+        }
+        return stats;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        recordRead(node);
+        return node.value;
+    }
+
+    public boolean containsKey(K key) {
+        return data.containsKey(key);
+    }
+
+    public void put(K key, V value) {
+        lock.lock();
+        try {
+            drainReads();
+            putLocked(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean replace(K key, V expected, V value) {
+        lock.lock();
+        try {
+            Node<K, V> node = data.get(key);
+            if (node == null || node.value != expected) return false;
+            node.value = value;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        lock.lock();
+        try {
+            drainReads();
+            Node<K, V> node = data.get(key);
+            V current = node != null ? node.value : null;
+            V value = remapping.apply(key, current);
+            if (value == null) {
+                if (current != null) removeLocked(node);
+            } else if (value != current) {
+                putLocked(key, value);
+            }
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mapping) {
+        V value = get(key);
+        if (value != null) return value;
+
+        lock.lock();
+        try {
+            drainReads();
+            Node<K, V> node = data.get(key);
+            if (node != null) return node.value;
+
+            value = mapping.apply(key);
+            putLocked(key, value);
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public V remove(K key) {
+        lock.lock();
+        try {
+            Node<K, V> node = data.get(key);
+            if (node == null) return null;
+            removeLocked(node);
+            return node.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean remove(K key, V value) {
+        lock.lock();
+        try {
+            Node<K, V> node = data.get(key);
+            if (node == null || !Objects.equals(node.value, value)) return false;
+            removeLocked(node);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void removeIf(BiPredicate<? super K, ? super V> predicate) {
+        lock.lock();
+        try {
+            for (Map.Entry<K, Node<K, V>> entry : data.entrySet()) {
+                if (predicate.test(entry.getKey(), entry.getValue().value)) {
+                    removeLocked(entry.getValue());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        removeIf((k, v) -> true);
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public Stats getStats() {
+        return new Stats(name, size(), capacity.getAsInt(), hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    // Replays buffered hits now; writes do this on their own
+    void cleanUp() {
+        lock.lock();
+        try {
+            drainReads();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordRead(Node<K, V> node) {
+        long count = reads.getAndIncrement();
+        readBuffer.lazySet((int) (count & READ_BUFFER_MASK), node);
+        if ((count & (DRAIN_THRESHOLD - 1)) == DRAIN_THRESHOLD - 1 && lock.tryLock()) {
+            try {
+                drainReads();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void drainReads() {
+        for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+            Node<K, V> node = readBuffer.getAndSet(i, null);
+            if (node != null) {
+                onAccess(node);
+            }
+        }
+    }
+
+    private void onAccess(Node<K, V> node) {
+        // Removed between the read and the drain
+        if (node.segment == null) return;
+
+        node.segment.unlink(node);
+        protectedSegment.addLast(node);
+
+        int protectedCapacity = Math.max(1, (int) (capacity.getAsInt() * PROTECTED_RATIO));
+        while (protectedSegment.size > protectedCapacity) {
+            Node<K, V> demoted = protectedSegment.first();
+            protectedSegment.unlink(demoted);
+            probation.addLast(demoted);
+        }
+    }
+
+    private void putLocked(K key, V value) {
+        Node<K, V> node = data.get(key);
+        if (node != null) {
+            node.value = value;
+            Segment<K, V> segment = node.segment;
+            segment.unlink(node);
+            segment.addLast(node);
+            return;
+        }
+
+        node = new Node<>(key, value);
+        data.put(key, node);
+        probation.addLast(node);
+        evictToCapacity();
+    }
+
+    private void removeLocked(Node<K, V> node) {
+        data.remove(node.key, node);
+        if (node.segment != null) {
+            node.segment.unlink(node);
+        }
+        onRemoval.accept(node.key, node.value);
+    }
+
+    private void evictToCapacity() {
+        int max = Math.max(1, capacity.getAsInt());
+        while (data.size() > max) {
+            Node<K, V> eldest = probation.first();
+            if (eldest == null) eldest = protectedSegment.first();
+            if (eldest == null) return;
+            removeLocked(eldest);
+            evictions.increment();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.tiertests.tiertagger.util;
+
+import com.tiertests.tiertagger.config.ModConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters cheap enough to leave on: requests per endpoint with status codes and latency, and
+// what each cache decided per lookup. Render-path time is only measured while the overlay is
+// shown, since that is the one counter paid for on every nametag.
+public class Metrics {
+    // Upper bound in ms of each latency bucket; one more bucket holds everything slower
+    private static final long[] LATENCY_BOUNDS_MS = {25, 50, 100, 250, 500, 1000, 2500, 5000};
+    private static final int FRAME_WINDOW = 120;
+
+    private static final Map<String, Requests> REQUESTS = new ConcurrentHashMap<>();
+    private static final Map<String, CacheCounter> CACHES = new ConcurrentHashMap<>();
+
+    // Render thread only
+    private static final long[] frames = new long[FRAME_WINDOW];
+    private static long frameNanos;
+    private static int frameCount;
+
+    public enum Outcome {
+        HIT,
+        // Served, but old enough that a refresh was started
+        STALE,
+        MISS,
+        // Known to have nothing, so no request was made
+        NEGATIVE
+    }
+
+    public record RequestStats(String name, long count, long failures, Map<Integer, Long> statuses, long p50Ms, long p95Ms) {}
+
+    public record CacheStats(String name, long hits, long stale, long misses, long negative) {
+        public double hitRate() {
+            long total = hits + stale + misses + negative;
+            return total == 0 ? 0 : (double) (hits + stale + negative) / total;
+        }
+    }
+
+    public record FrameStats(int frames, long avgMicros, long maxMicros) {}
+
+    private static final class Requests {
+        private final LongAdder failures = new LongAdder();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentSkipListMap<>();
+        private final AtomicLongArray latency = new AtomicLongArray(LATENCY_BOUNDS_MS.length + 1);
+
+        private void record(int status, long nanos) {
+            if (status < 0) {
+                failures.increment();
+            } else {
+                statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+            }
+
+            long ms = nanos / 1_000_000;
+            int bucket = 0;
+            while (bucket < LATENCY_BOUNDS_MS.length && ms > LATENCY_BOUNDS_MS[bucket]) bucket++;
+            latency.incrementAndGet(bucket);
+        }
+
+        // The upper bound of the bucket the percentile falls in; -1 past the last bound
+        private long percentileMs(long count, double p) {
+            long target = (long) Math.ceil(count * p);
+            long seen = 0;
+            for (int bucket = 0; bucket < latency.length(); bucket++) {
+                seen += latency.get(bucket);
+                if (seen >= target) {
+                    return bucket < LATENCY_BOUNDS_MS.length ? LATENCY_BOUNDS_MS[bucket] : -1;
+                }
+            }
+            return -1;
+        }
+
+        private RequestStats getStats(String name) {
+            Map<Integer, Long> counts = new TreeMap<>();
+            long count = failures.sum();
+            for (Map.Entry<Integer, LongAdder> entry : statuses.entrySet()) {
+                long n = entry.getValue().sum();
+                counts.put(entry.getKey(), n);
+                count += n;
+            }
+            return new RequestStats(name, count, failures.sum(), counts, percentileMs(count, 0.50), percentileMs(count, 0.95));
+        }
+    }
+
+    public static final class CacheCounter {
+        private final String name;
+        private final LongAdder[] outcomes = new LongAdder[Outcome.values().length];
+
+        private CacheCounter(String name) {
+            this.name = name;
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] = new LongAdder();
+            }
+        }
+
+        public void record(Outcome outcome) {
+            outcomes[outcome.ordinal()].increment();
+        }
+
+        public CacheStats getStats() {
+            return new CacheStats(name, outcomes[Outcome.HIT.ordinal()].sum(), outcomes[Outcome.STALE.ordinal()].sum(),
+                    outcomes[Outcome.MISS.ordinal()].sum(), outcomes[Outcome.NEGATIVE.ordinal()].sum());
+        }
+    }
+
+    public static CacheCounter cache(String name) {
+        return CACHES.computeIfAbsent(name, CacheCounter::new);
+    }
+
+    // A negative status records a request that failed without a response
+    public static void recordRequest(String endpoint, int status, long nanos) {
+        Requests requests = REQUESTS.get(endpoint);
+        if (requests == null) {
+            requests = REQUESTS.computeIfAbsent(endpoint, e -> new Requests());
+        }
+        requests.record(status, nanos);
+    }
+
+    public static List<RequestStats> getRequestStats() {
+        List<RequestStats> stats = new ArrayList<>();
+        new TreeMap<>(REQUESTS).forEach((name, requests) -> stats.add(requests.getStats(name)));
+        return stats;
+    }
+
+    public static List<CacheStats> getCacheStats() {
+        List<CacheStats> stats = new ArrayList<>();
+        new TreeMap<>(CACHES).forEach((name, counter) -> stats.add(counter.getStats()));
+        return stats;
+    }
+
+    public static long renderStart() {
+        return ModConfig.isShowMetricsOverlay() ? System.nanoTime() : 0;
+    }
+
+    public static void renderEnd(long start) {
+        if (start != 0) {
+            frameNanos += System.nanoTime() - start;
+        }
+    }
+
+    // Called once per frame by the overlay, closing the frame the nametags and tab list just drew
+    public static void endFrame() {
+        frames[frameCount % FRAME_WINDOW] = frameNanos;
+        frameCount++;
+        frameNanos = 0;
+    }
+
+    public static FrameStats getFrameStats() {
+        int count = Math.min(frameCount, FRAME_WINDOW);
+        if (count == 0) return new FrameStats(0, 0, 0);
+
+        long total = 0;
+        long max = 0;
+        for (int i = 0; i < count; i++) {
+            total += frames[i];
+            max = Math.max(max, frames[i]);
+        }
+        return new FrameStats(count, total / count / 1000, max / 1000);
+    }
+}
@@ -3,7 +3,10 @@ package com.tiertests.tiertagger.util;
 import com.mojang.blaze3d.platform.NativeImage;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.tiertests.tiertagger.TierTaggerCommon;
-import com.tiertests.tiertagger.api.TierAPI;
+import com.tiertests.tiertagger.api.http.Endpoint;
+import com.tiertests.tiertagger.api.http.HttpTransport;
+import com.tiertests.tiertagger.api.http.WorkQueue;
+import com.tiertests.tiertagger.config.ModConfig;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiGraphics;
 import net.minecraft.client.renderer.RenderType;
@@ -11,36 +14,37 @@ import net.minecraft.client.renderer.texture.DynamicTexture;
 import net.minecraft.resources.ResourceLocation;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.util.Map;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class SkinTextureManager {
 
-    private static final String BASE_URL = "https://skins.mcstats.com/";
-    private static final Map<String, ResourceLocation> cache = new ConcurrentHashMap<>();
-    private static final Map<String, int[]> dimensions = new ConcurrentHashMap<>();
+    private static final BoundedCache<String, Skin> cache =
+            new BoundedCache<>("skins", ModConfig::getSkinCacheSize, (key, skin) -> release(skin));
+    private static final BoundedCache<String, Boolean> failed =
+            new BoundedCache<>("failed-skins", ModConfig::getSkinCacheSize);
     private static final Set<String> pending = ConcurrentHashMap.newKeySet();
-    private static final Set<String> failed = ConcurrentHashMap.newKeySet();
+    private static final Metrics.CacheCounter lookups = Metrics.cache("skins");
+
+    private record Skin(ResourceLocation location, int width, int height) {}
 
     public static void fetchBodyFront(UUID uuid) {
         String key = "body_" + noDashes(uuid);
-        fetch(BASE_URL + "body/front/" + noDashes(uuid), key);
+        fetch(Endpoint.SKINS.getBase() + "/body/front/" + noDashes(uuid), key);
     }
 
     public static void fetchFace(UUID uuid) {
         String key = "face_" + noDashes(uuid);
-        fetch(BASE_URL + "face/" + noDashes(uuid), key);
+        fetch(Endpoint.SKINS.getBase() + "/face/" + noDashes(uuid), key);
     }
 
     public static void fetchSkull(String nameOrUuid) {
         String key = "skull_" + nameOrUuid.toLowerCase();
-        fetch(BASE_URL + "skull/" + nameOrUuid, key);
+        fetch(Endpoint.SKINS.getBase() + "/skull/" + nameOrUuid, key);
     }
 
     public static boolean hasBodyFront(UUID uuid) {
@@ -68,13 +72,12 @@ public class SkinTextureManager {
     }
 
     private static void render(GuiGraphics graphics, String key, int x, int y, int maxW, int maxH) {
-        ResourceLocation loc = cache.get(key);
-        int[] dims = dimensions.get(key);
-        if (loc == null || dims == null) return;
+        Skin skin = cache.get(key);
+        if (skin == null) return;
 
-        float scale = Math.min((float) maxW / dims[0], (float) maxH / dims[1]);
-        int drawW = (int) (dims[0] * scale);
-        int drawH = (int) (dims[1] * scale);
+        float scale = Math.min((float) maxW / skin.width(), (float) maxH / skin.height());
+        int drawW = (int) (skin.width() * scale);
+        int drawH = (int) (skin.height() * scale);
         int drawX = x + (maxW - drawW) / 2;
         int drawY = y + (maxH - drawH) / 2;
 
@@ -82,68 +85,82 @@ public class SkinTextureManager {
         pose.pushPose();
         pose.translate(drawX, drawY, 0);
         pose.scale(scale, scale, 1f);
-        graphics.blit(RenderType::guiTextured, loc, 0, 0, 0, 0, dims[0], dims[1], dims[0], dims[1]);
+        graphics.blit(RenderType::guiTextured, skin.location(), 0, 0, 0, 0, skin.width(), skin.height(), skin.width(), skin.height());
         pose.popPose();
     }
 
     private static void fetch(String url, String key) {
-        if (cache.containsKey(key) || pending.contains(key) || failed.contains(key)) return;
-        pending.add(key);
+        if (cache.containsKey(key)) {
+            lookups.record(Metrics.Outcome.HIT);
+            return;
+        }
+        if (failed.containsKey(key)) {
+            lookups.record(Metrics.Outcome.NEGATIVE);
+            return;
+        }
+        // Already on its way; counted once, when it was first asked for
+        if (!pending.add(key)) return;
+        lookups.record(Metrics.Outcome.MISS);
+
+        HttpRequest request = HttpTransport.request(url)
+                .setHeader("User-Agent", "TierTagger Minecraft Mod")
+                .header("Accept", "image/png")
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+
+        WorkQueue.of(WorkQueue.WorkClass.SKINS).submit(key, () -> HttpTransport.send(request, HttpResponse.BodyHandlers.ofByteArray())).whenComplete((response, error) -> {
+            if (error != null) {
+                TierTaggerCommon.LOGGER.warn("Failed to fetch skin: {}", error.getMessage());
+                failed.put(key, true);
+                pending.remove(key);
+                return;
+            }
+            // Shed while queued; leave it unmarked so the next render asks again
+            if (response == null) {
+                pending.remove(key);
+                return;
+            }
+
+            int code = response.statusCode();
+            if (code != 200) {
+                TierTaggerCommon.LOGGER.warn("Skin fetch returned {} for {}", code, url);
+                failed.put(key, true);
+                pending.remove(key);
+                return;
+            }
 
-        TierAPI.getExecutor().submit(() -> {
             try {
-                HttpURLConnection conn = (HttpURLConnection) new URI(url).toURL().openConnection();
-                conn.setRequestMethod("GET");
-                conn.setRequestProperty("User-Agent", "TierTagger Minecraft Mod");
-                conn.setRequestProperty("Accept", "image/png");
-                conn.setInstanceFollowRedirects(true);
-                conn.setConnectTimeout(5000);
-                conn.setReadTimeout(5000);
-
-                int code = conn.getResponseCode();
-                if (code != 200) {
-                    TierTaggerCommon.LOGGER.warn("Skin fetch returned {} for {}", code, url);
-                    failed.add(key);
+                NativeImage image = NativeImage.read(new ByteArrayInputStream(response.body()));
+                int w = image.getWidth();
+                int h = image.getHeight();
+
+                Minecraft.getInstance().execute(() -> {
+                    DynamicTexture tex = new DynamicTexture(image);
+                    ResourceLocation loc = ResourceLocation.fromNamespaceAndPath("tiertagger", "dynamic/" + key);
+                    Minecraft.getInstance().getTextureManager().register(loc, tex);
+                    cache.put(key, new Skin(loc, w, h));
                     pending.remove(key);
-                    return;
-                }
-
-                try (InputStream is = conn.getInputStream()) {
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    byte[] buf = new byte[8192];
-                    int n;
-                    while ((n = is.read(buf)) != -1) baos.write(buf, 0, n);
-                    byte[] data = baos.toByteArray();
-                    NativeImage image = NativeImage.read(new ByteArrayInputStream(data));
-                    int w = image.getWidth();
-                    int h = image.getHeight();
-
-                    Minecraft.getInstance().execute(() -> {
-                        DynamicTexture tex = new DynamicTexture(image);
-                        ResourceLocation loc = ResourceLocation.fromNamespaceAndPath("tiertagger", "dynamic/" + key);
-                        Minecraft.getInstance().getTextureManager().register(loc, tex);
-                        cache.put(key, loc);
-                        dimensions.put(key, new int[]{w, h});
-                        pending.remove(key);
-                    });
-                }
+                });
             } catch (Exception e) {
                 TierTaggerCommon.LOGGER.warn("Failed to fetch skin: {}", e.getMessage());
-                failed.add(key);
+                failed.put(key, true);
                 pending.remove(key);
             }
         });
     }
 
     public static void clearCache() {
-        cache.values().forEach(loc ->
-                Minecraft.getInstance().getTextureManager().release(loc));
         cache.clear();
-        dimensions.clear();
         pending.clear();
         failed.clear();
     }
 
+    private static void release(Skin skin) {
+        Minecraft.getInstance().execute(() ->
+                Minecraft.getInstance().getTextureManager().release(skin.location()));
+    }
+
     private static String noDashes(UUID uuid) {
         return uuid.toString().replace("-", "");
     }
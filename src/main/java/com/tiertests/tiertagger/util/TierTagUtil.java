@@ -1,21 +1,129 @@
 package com.tiertests.tiertagger.util;
 
-import com.tiertests.tiertagger.api.TierSourceFactory;
 import com.tiertests.tiertagger.config.DisplayMode;
+import com.tiertests.tiertagger.config.DisplayType;
 import com.tiertests.tiertagger.config.ModConfig;
 import com.tiertests.tiertagger.data.GameMode;
 import com.tiertests.tiertagger.data.GameModeManager;
 import com.tiertests.tiertagger.data.PlayerData;
 import com.tiertests.tiertagger.data.Tier;
+import com.tiertests.tiertagger.manager.CrossSourceIndex;
 import com.tiertests.tiertagger.manager.TierManager;
+import net.minecraft.ChatFormatting;
+import net.minecraft.client.gui.Font;
 import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.FormattedText;
 import net.minecraft.network.chat.MutableComponent;
 
+import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 
 public class TierTagUtil {
+    private static final Component SEPARATOR = Component.literal(" | ").withStyle(ChatFormatting.GRAY);
+    private static final BoundedCache<UUID, CachedTag> tagCache =
+            new BoundedCache<>("nametags", ModConfig::getPlayerCacheSize);
+    private static final Map<Component, CachedTag> tabWidths = new IdentityHashMap<>();
+    private static final BoundedCache<UUID, CachedTag> tabCache =
+            new BoundedCache<>("tab-names", ModConfig::getPlayerCacheSize, (uuid, tab) -> tabWidths.remove(tab.decorated));
+
+    // Everything a rendered tag depends on, so a cached tag can tell whether it is out of date.
+    // PlayerData is immutable, so comparing identity covers every change to the player itself.
+    private record Stamp(PlayerData data, int configEpoch, int crossSourceEpoch) {
+        private static Stamp of(PlayerData data) {
+            return new Stamp(data, ModConfig.getEpoch(), TierManager.getCrossSourceEpoch());
+        }
+
+        private boolean isCurrent(PlayerData current) {
+            if (data != current || configEpoch != ModConfig.getEpoch())
+                return false;
+
+            DisplayMode mode = ModConfig.getTierDisplayMode();
+            boolean usesCrossSource = mode == DisplayMode.CROSS_API_SAME_MODE || mode == DisplayMode.CROSS_API_ANY_MODE;
+            return !usesCrossSource || crossSourceEpoch == TierManager.getCrossSourceEpoch();
+        }
+    }
+
+    // Only touched from the render thread, so the decorated name and width can be filled in lazily
+    private static final class CachedTag {
+        private final Stamp stamp;
+        private final MutableComponent tag;
+        private Component original;
+        private Component decorated;
+        private int width = -1;
+
+        private CachedTag(Stamp stamp, MutableComponent tag) {
+            this.stamp = stamp;
+            this.tag = tag;
+        }
+
+        // Identity first, since equals walks the whole component tree. An equal name from a new
+        // instance is kept so the next frame can match it by identity.
+        private boolean isFor(Component name) {
+            if (name == original) return true;
+            if (original == null || !name.equals(original)) return false;
+            original = name;
+            return true;
+        }
+    }
+
+    public static Component decorateNameTag(UUID uuid, Component displayName) {
+        PlayerData data = TierManager.getPlayerData(uuid);
+        if (data == null) return null;
+
+        CachedTag cached = tagCache.get(uuid);
+        if (cached == null || !cached.stamp.isCurrent(data)) {
+            Stamp stamp = Stamp.of(data);
+            cached = new CachedTag(stamp, buildTagComponent(uuid));
+            tagCache.put(uuid, cached);
+        }
+
+        if (cached.tag == null) return null;
+
+        if (cached.decorated == null || !cached.isFor(displayName)) {
+            cached.original = displayName;
+            cached.decorated = decorate(cached.tag, displayName);
+        }
+        return cached.decorated;
+    }
+
+    public static Component decorateTabName(UUID uuid, Component original) {
+        PlayerData data = TierManager.hasPlayerData(uuid) ? TierManager.getPlayerData(uuid) : null;
+
+        CachedTag cached = tabCache.get(uuid);
+        if (cached != null && cached.stamp.isCurrent(data) && cached.isFor(original)) {
+            return cached.decorated;
+        }
+
+        Stamp stamp = Stamp.of(data);
+        MutableComponent tag = data != null ? buildTabComponent(uuid) : null;
+        if (cached != null) {
+            tabWidths.remove(cached.decorated);
+        }
+
+        cached = new CachedTag(stamp, tag);
+        cached.original = original;
+        cached.decorated = tag != null ? decorate(tag, original) : original;
+        tabCache.put(uuid, cached);
+        tabWidths.put(cached.decorated, cached);
+        return cached.decorated;
+    }
+
+    public static int getTabNameWidth(Font font, FormattedText text) {
+        CachedTag cached = text instanceof Component component ? tabWidths.get(component) : null;
+        if (cached == null) return font.width(text);
+
+        if (cached.width < 0) {
+            cached.width = font.width(text);
+        }
+        return cached.width;
+    }
+
+    private static Component decorate(Component tag, Component name) {
+        return ModConfig.getDisplayType() == DisplayType.PREFIX
+                ? Component.empty().append(tag).append(SEPARATOR).append(name)
+                : name.copy().append(SEPARATOR).append(tag);
+    }
 
     public static MutableComponent buildTagComponent(UUID uuid) {
         PlayerData data = TierManager.getPlayerData(uuid);
@@ -211,52 +319,17 @@ public class TierTagUtil {
         return comp != null ? comp.getString() : "";
     }
 
-    private static final Set<Set<String>> MODE_ALIASES = Set.of(
-            Set.of("vanilla", "crystal"),
-            Set.of("nethpot", "nethop", "neth_pot", "netherpot")
-    );
-
-    private static boolean isSameMode(String a, String b) {
-        if (a.equalsIgnoreCase(b)) return true;
-        String la = a.toLowerCase();
-        String lb = b.toLowerCase();
-        for (Set<String> group : MODE_ALIASES) {
-            if (group.contains(la) && group.contains(lb)) return true;
-        }
-        return false;
-    }
-
     private record CrossApiResult(GameMode mode, Tier tier) {}
 
     private static Tier resolveCrossApiSameMode(UUID uuid, GameMode targetMode) {
         if (targetMode == null) return null;
-        Tier best = null;
-        Map<TierSourceFactory.TierSources, PlayerData> allData = TierManager.getAllCrossSourceData(uuid);
-        for (PlayerData pd : allData.values()) {
-            for (Map.Entry<GameMode, Tier> entry : pd.getTiers().entrySet()) {
-                if (!isSameMode(entry.getKey().name(), targetMode.name())) continue;
-                Tier t = entry.getValue();
-                if (t != null && (best == null || t.ordinal() < best.ordinal())) {
-                    best = t;
-                }
-            }
-        }
-        return best;
+        CrossSourceIndex index = TierManager.getCrossSourceIndex(uuid);
+        return index != null ? index.getBestTier(targetMode) : null;
     }
 
     private static CrossApiResult resolveCrossApiAnyMode(UUID uuid) {
-        Tier best = null;
-        GameMode bestMode = null;
-        Map<TierSourceFactory.TierSources, PlayerData> allData = TierManager.getAllCrossSourceData(uuid);
-        for (PlayerData pd : allData.values()) {
-            for (Map.Entry<GameMode, Tier> entry : pd.getTiers().entrySet()) {
-                Tier t = entry.getValue();
-                if (t != null && (best == null || t.ordinal() < best.ordinal())) {
-                    best = t;
-                    bestMode = entry.getKey();
-                }
-            }
-        }
-        return best != null ? new CrossApiResult(bestMode, best) : null;
+        CrossSourceIndex index = TierManager.getCrossSourceIndex(uuid);
+        if (index == null || index.getBestTier() == null) return null;
+        return new CrossApiResult(index.getBestMode(), index.getBestTier());
     }
 }
@@ -0,0 +1,153 @@
+package com.tiertests.tiertagger.api.http;
+
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    @Test
+    void burstIsGrantedAtOnce() {
+        RateLimiter limiter = new RateLimiter("test", () -> 1, () -> 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.acquire(FetchPriority.NEARBY).isDone());
+        }
+        assertFalse(limiter.acquire(FetchPriority.NEARBY).isDone());
+        assertEquals(1, limiter.getState().queued());
+    }
+
+    @Test
+    void waitersAreGrantedByPriorityThenArrival() throws Exception {
+        RateLimiter limiter = new RateLimiter("test", () -> 20, () -> 1);
+        assertTrue(limiter.acquire(FetchPriority.NEARBY).isDone());
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        CompletableFuture<?>[] permits = {
+                waiter(limiter, FetchPriority.ENRICHMENT, "enrichment", order),
+                waiter(limiter, FetchPriority.TAB, "tab", order),
+                waiter(limiter, FetchPriority.NEARBY, "nearby1", order),
+                waiter(limiter, FetchPriority.USER, "user", order),
+                waiter(limiter, FetchPriority.NEARBY, "nearby2", order)
+        };
+        CompletableFuture.allOf(permits).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("user", "nearby1", "nearby2", "tab", "enrichment"), order);
+    }
+
+    @Test
+    void retryAfterSecondsBlocksEveryPriority() throws Exception {
+        RateLimiter limiter = new RateLimiter("test", () -> 100, () -> 10);
+        limiter.onResponse(response(429, "1"));
+
+        long start = System.nanoTime();
+        CompletableFuture<Void> permit = limiter.acquire(FetchPriority.USER);
+        assertFalse(permit.isDone());
+        assertTrue(limiter.getState().blockedForMs() > 500);
+        assertEquals(1, limiter.getState().throttledResponses());
+
+        permit.get(5, TimeUnit.SECONDS);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 900);
+    }
+
+    @Test
+    void retryAfterDateIsHonoured() {
+        RateLimiter limiter = new RateLimiter("test", () -> 100, () -> 10);
+        String inThreeSeconds = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(3));
+        limiter.onResponse(response(503, inThreeSeconds));
+
+        long blockedFor = limiter.getState().blockedForMs();
+        assertTrue(blockedFor > 1500 && blockedFor <= 3000, "blocked for " + blockedFor + " ms");
+    }
+
+    @Test
+    void successfulResponsesDoNotBlock() {
+        RateLimiter limiter = new RateLimiter("test", () -> 100, () -> 10);
+        limiter.onResponse(response(200, "60"));
+
+        assertEquals(0, limiter.getState().blockedForMs());
+        assertTrue(limiter.acquire(FetchPriority.ENRICHMENT).isDone());
+    }
+
+    @Test
+    void cancelledWaiterGivesUpItsTokenToTheNext() throws Exception {
+        RateLimiter limiter = new RateLimiter("test", () -> 5, () -> 1);
+        assertTrue(limiter.acquire(FetchPriority.NEARBY).isDone());
+
+        CompletableFuture<Void> cancelled = limiter.acquire(FetchPriority.USER);
+        CompletableFuture<Void> next = limiter.acquire(FetchPriority.NEARBY);
+        cancelled.cancel(false);
+
+        next.get(5, TimeUnit.SECONDS);
+        assertEquals(0, limiter.getState().queued());
+        // Only next spent the token that came back; the cancelled waiter spent none
+        assertTrue(limiter.getState().tokens() < 1);
+    }
+
+    private static CompletableFuture<Void> waiter(RateLimiter limiter, FetchPriority priority, String name, List<String> order) {
+        CompletableFuture<Void> permit = limiter.acquire(priority);
+        assertFalse(permit.isDone());
+        return permit.thenRun(() -> order.add(name));
+    }
+
+    private static HttpResponse<Void> response(int status, String retryAfter) {
+        HttpHeaders headers = HttpHeaders.of(Map.of("Retry-After", List.of(retryAfter)), (name, value) -> true);
+        return new HttpResponse<>() {
+            @Override
+            public int statusCode() {
+                return status;
+            }
+
+            @Override
+            public HttpRequest request() {
+                return HttpRequest.newBuilder(URI.create("http://127.0.0.1/")).build();
+            }
+
+            @Override
+            public Optional<HttpResponse<Void>> previousResponse() {
+                return Optional.empty();
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public Void body() {
+                return null;
+            }
+
+            @Override
+            public Optional<SSLSession> sslSession() {
+                return Optional.empty();
+            }
+
+            @Override
+            public URI uri() {
+                return request().uri();
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return HttpClient.Version.HTTP_1_1;
+            }
+        };
+    }
+}
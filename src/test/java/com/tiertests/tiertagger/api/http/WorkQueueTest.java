@@ -0,0 +1,179 @@
+package com.tiertests.tiertagger.api.http;
+
+import com.tiertests.tiertagger.config.ModConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// One task runs at a time and two may wait, so every test fills the queue with a few keys.
+// Work is a future the test completes by hand.
+class WorkQueueTest {
+    private final Map<String, CompletableFuture<String>> work = new HashMap<>();
+    private final List<String> started = new ArrayList<>();
+
+    @BeforeEach
+    void limit() {
+        for (WorkQueue.WorkClass workClass : WorkQueue.WorkClass.values()) {
+            ModConfig.setMaxRunning(workClass, 1);
+            ModConfig.setQueueCapacity(workClass, 2);
+        }
+    }
+
+    @AfterEach
+    void restore() {
+        for (WorkQueue.WorkClass workClass : WorkQueue.WorkClass.values()) {
+            ModConfig.setMaxRunning(workClass, workClass.getDefaultMaxRunning());
+            ModConfig.setQueueCapacity(workClass, workClass.getDefaultCapacity());
+        }
+    }
+
+    @Test
+    void queuedWorkStartsInArrivalOrder() {
+        WorkQueue queue = new WorkQueue(WorkQueue.WorkClass.TIER_DATA);
+        CompletableFuture<String> a = submit(queue, "a");
+        CompletableFuture<String> b = submit(queue, "b");
+        CompletableFuture<String> c = submit(queue, "c");
+        assertEquals(List.of("a"), started);
+        assertEquals(2, queue.getStats().depth());
+
+        work.get("a").complete("A");
+        assertEquals("A", a.join());
+        assertEquals(List.of("a", "b"), started);
+
+        work.get("b").complete("B");
+        work.get("c").complete("C");
+        assertEquals("B", b.join());
+        assertEquals("C", c.join());
+        assertEquals(0, queue.getStats().running());
+    }
+
+    @Test
+    void dropOldestShedsTheLongestWaiting() {
+        WorkQueue queue = new WorkQueue(WorkQueue.WorkClass.TIER_DATA);
+        submit(queue, "a");
+        CompletableFuture<String> b = submit(queue, "b");
+        CompletableFuture<String> c = submit(queue, "c");
+        CompletableFuture<String> d = submit(queue, "d");
+
+        assertTrue(b.isDone());
+        assertNull(b.join());
+        assertFalse(c.isDone());
+        assertFalse(d.isDone());
+        assertEquals(1, queue.getStats().dropped());
+
+        work.get("a").complete("A");
+        assertEquals(List.of("a", "c"), started);
+    }
+
+    @Test
+    void rejectNewestTurnsAwayTheNewTask() {
+        WorkQueue queue = new WorkQueue(WorkQueue.WorkClass.METADATA);
+        submit(queue, "a");
+        CompletableFuture<String> b = submit(queue, "b");
+        CompletableFuture<String> c = submit(queue, "c");
+        CompletableFuture<String> d = submit(queue, "d");
+
+        assertNull(d.join());
+        assertFalse(b.isDone());
+        assertFalse(c.isDone());
+        assertEquals(1, queue.getStats().dropped());
+        assertFalse(work.containsKey("d"));
+    }
+
+    @Test
+    void duplicateKeysShareOneTask() {
+        WorkQueue queue = new WorkQueue(WorkQueue.WorkClass.TIER_DATA);
+        CompletableFuture<String> running = submit(queue, "a");
+        CompletableFuture<String> runningAgain = submit(queue, "a");
+        CompletableFuture<String> queued = submit(queue, "b");
+        CompletableFuture<String> queuedAgain = submit(queue, "b");
+
+        assertSame(running, runningAgain);
+        assertSame(queued, queuedAgain);
+        assertEquals(2, queue.getStats().coalesced());
+        assertEquals(1, queue.getStats().depth());
+
+        work.get("a").complete("A");
+        work.get("b").complete("B");
+        assertEquals("B", queuedAgain.join());
+        assertEquals(List.of("a", "b"), started);
+    }
+
+    @Test
+    void userWorkStartsPastTheLimit() {
+        WorkQueue queue = new WorkQueue(WorkQueue.WorkClass.TIER_DATA);
+        submit(queue, "a");
+        submit(queue, "b");
+        submit(queue, "c");
+        CompletableFuture<String> user = FetchPriority.supplyAs(FetchPriority.USER, () -> submit(queue, "user"));
+
+        assertEquals(List.of("a", "user"), started);
+        assertEquals(2, queue.getStats().running());
+        assertEquals(0, queue.getStats().dropped());
+        work.get("user").complete("U");
+        assertEquals("U", user.join());
+    }
+
+    @Test
+    void userRequestPromotesQueuedDuplicate() {
+        WorkQueue queue = new WorkQueue(WorkQueue.WorkClass.TIER_DATA);
+        submit(queue, "a");
+        CompletableFuture<String> queued = submit(queue, "b");
+        CompletableFuture<String> promoted = FetchPriority.supplyAs(FetchPriority.USER, () -> submit(queue, "b"));
+
+        assertSame(queued, promoted);
+        assertEquals(List.of("a", "b"), started);
+        assertEquals(0, queue.getStats().depth());
+
+        // A promoted task is user work now, so it cannot be cancelled
+        queue.cancel("b");
+        work.get("b").complete("B");
+        assertEquals("B", promoted.join());
+    }
+
+    @Test
+    void cancellingQueuedWorkDropsItBeforeItStarts() {
+        WorkQueue queue = new WorkQueue(WorkQueue.WorkClass.TIER_DATA);
+        submit(queue, "a");
+        CompletableFuture<String> b = submit(queue, "b");
+
+        queue.cancel("b");
+        assertNull(b.join());
+        work.get("a").complete("A");
+        assertEquals(List.of("a"), started);
+        assertEquals(0, queue.getStats().running());
+    }
+
+    @Test
+    void cancellingStartedWorkCancelsWhatItWaitsOn() {
+        WorkQueue queue = new WorkQueue(WorkQueue.WorkClass.TIER_DATA);
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        CompletableFuture<String> result = queue.submit("a", () -> {
+            WorkQueue.attach(permit);
+            return permit.thenApply(v -> "A");
+        });
+
+        queue.cancel("a");
+        assertTrue(permit.isCancelled());
+        assertTrue(result.isCompletedExceptionally());
+
+        // The key is free again, so the player coming back gets a fresh fetch
+        CompletableFuture<String> again = submit(queue, "a");
+        assertNotSame(result, again);
+    }
+
+    private CompletableFuture<String> submit(WorkQueue queue, String key) {
+        return queue.submit(key, () -> {
+            started.add(key);
+            return work.computeIfAbsent(key, k -> new CompletableFuture<>());
+        });
+    }
+}
@@ -0,0 +1,73 @@
+package com.tiertests.tiertagger.data;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tiertests.tiertagger.api.TierSourceFactory;
+import com.tiertests.tiertagger.api.http.Endpoint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+// Fills GameModeManager with every source's mode list, as the game has after joining a server.
+// The lists come from the mock fixtures the load test serves, from a loopback server that only
+// answers the mode routes.
+public class ModeFixtures {
+    private static final Map<Endpoint, Map<String, String>> ROUTES = Map.of(
+            Endpoint.TIER_TESTS, Map.of("/gamemodes/modern", "tiertests-gamemodes.json"),
+            Endpoint.MC_TIERS, Map.of("/mode/list", "rankings-modes.json"),
+            Endpoint.SUB_TIERS, Map.of("/mode/list", "subtiers-modes.json"));
+
+    public static void load() throws IOException {
+        if (GameModeManager.getGameModeSize() > 0) return;
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        ROUTES.forEach((endpoint, routes) -> server.createContext("/" + endpoint.getKey() + "/", exchange -> {
+            try (exchange) {
+                String path = exchange.getRequestURI().getPath().substring(endpoint.getKey().length() + 1);
+                String fixture = routes.get(path);
+                if (fixture != null) {
+                    respond(exchange, 200, fixture(fixture));
+                } else {
+                    respond(exchange, 404, "{}".getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }));
+        server.start();
+
+        try {
+            for (Endpoint endpoint : ROUTES.keySet()) {
+                endpoint.setBase("http://127.0.0.1:" + server.getAddress().getPort() + "/" + endpoint.getKey());
+            }
+            TierSourceFactory.init();
+            GameModeManager.updateModes().join();
+            for (TierSourceFactory.TierSources source : TierSourceFactory.TierSources.values()) {
+                GameModeManager.loadModesForSource(source).join();
+            }
+        } finally {
+            server.stop(0);
+            for (Endpoint endpoint : ROUTES.keySet()) {
+                endpoint.setBase(null);
+            }
+        }
+    }
+
+    private static byte[] fixture(String name) throws IOException {
+        try (InputStream in = ModeFixtures.class.getResourceAsStream("/mock/" + name)) {
+            if (in == null) throw new IllegalStateException("Missing fixture " + name);
+            return in.readAllBytes();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int code, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.tiertests.tiertagger.manager;
+
+import com.tiertests.tiertagger.api.TierSourceFactory;
+import com.tiertests.tiertagger.data.GameMode;
+import com.tiertests.tiertagger.data.GameModeManager;
+import com.tiertests.tiertagger.data.ModeFixtures;
+import com.tiertests.tiertagger.data.PlayerData;
+import com.tiertests.tiertagger.data.Region;
+import com.tiertests.tiertagger.data.Tier;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Stores here write to a temporary folder, never to the game's config folder
+class PlayerDataStoreTest {
+    private static final TierSourceFactory.TierSources SOURCE = TierSourceFactory.TierSources.TIER_TESTS;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void loadModes() throws IOException {
+        ModeFixtures.load();
+    }
+
+    @Test
+    void roundTripsThroughTheFile() {
+        GameMode first = GameModeManager.getFromInt(0);
+        GameMode second = GameModeManager.getFromInt(1);
+        UUID uuid = UUID.randomUUID();
+        PlayerData data = PlayerData.builder()
+                .lastUpdated(System.currentTimeMillis())
+                .rank(12)
+                .points(340)
+                .region(new Region("Europe", "EU"))
+                .badge("Tester")
+                .addTier(first, Tier.A_PLUS)
+                .addTier(second, Tier.C_MINUS)
+                .addPeakTier(first, Tier.S)
+                .build();
+
+        PlayerDataStore.SourceStore store = new PlayerDataStore.SourceStore(dir.resolve("cache.bin"));
+        assertTrue(PlayerDataStore.add(store, uuid, data));
+        PlayerDataStore.flush(store);
+
+        PlayerDataStore.SourceStore reloaded = new PlayerDataStore.SourceStore(dir.resolve("cache.bin"));
+        PlayerDataStore.load(reloaded);
+        PlayerData read = PlayerDataStore.read(reloaded, SOURCE, uuid);
+
+        assertNotNull(read);
+        assertEquals(data.getTiers(), read.getTiers());
+        assertEquals(data.getPeakTiers(), read.getPeakTiers());
+        assertEquals(data.getRegion(), read.getRegion());
+        assertEquals(data.getBadge(), read.getBadge());
+        assertEquals(data.getRank(), read.getRank());
+        assertEquals(data.getPoints(), read.getPoints());
+        assertEquals(data.getLastUpdated(), read.getLastUpdated());
+    }
+
+    @Test
+    void rejectsFileWithBadChecksum() throws IOException {
+        Path path = dir.resolve("cache.bin");
+        PlayerDataStore.SourceStore store = new PlayerDataStore.SourceStore(path);
+        PlayerDataStore.add(store, UUID.randomUUID(), ranked(System.currentTimeMillis()));
+        PlayerDataStore.flush(store);
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 0x40;
+        Files.write(path, bytes);
+
+        PlayerDataStore.SourceStore reloaded = new PlayerDataStore.SourceStore(path);
+        PlayerDataStore.load(reloaded);
+        assertTrue(reloaded.entries.isEmpty());
+    }
+
+    @Test
+    void rejectsTruncatedFile() throws IOException {
+        Path path = dir.resolve("cache.bin");
+        PlayerDataStore.SourceStore store = new PlayerDataStore.SourceStore(path);
+        PlayerDataStore.add(store, UUID.randomUUID(), ranked(System.currentTimeMillis()));
+        PlayerDataStore.flush(store);
+
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+
+        PlayerDataStore.SourceStore reloaded = new PlayerDataStore.SourceStore(path);
+        PlayerDataStore.load(reloaded);
+        assertTrue(reloaded.entries.isEmpty());
+    }
+
+    @Test
+    void dropsEntriesPastMaxAge() {
+        UUID uuid = UUID.randomUUID();
+        PlayerDataStore.SourceStore store = new PlayerDataStore.SourceStore(dir.resolve("cache.bin"));
+        PlayerDataStore.add(store, uuid, ranked(System.currentTimeMillis() - 8L * 24 * 60 * 60 * 1000));
+
+        assertNull(PlayerDataStore.read(store, SOURCE, uuid));
+        assertFalse(store.entries.containsKey(uuid));
+    }
+
+    @Test
+    void keepsTheMostRecentlyUpdatedInMemory() {
+        PlayerDataStore.SourceStore store = new PlayerDataStore.SourceStore(dir.resolve("cache.bin"));
+        long now = System.currentTimeMillis();
+        UUID oldest = UUID.randomUUID();
+        PlayerDataStore.add(store, oldest, ranked(now - 60_000));
+        for (int i = 0; i < PlayerDataStore.MAX_ENTRIES; i++) {
+            PlayerDataStore.add(store, UUID.randomUUID(), ranked(now - i));
+        }
+
+        assertEquals(PlayerDataStore.MAX_ENTRIES, store.entries.size());
+        assertFalse(store.entries.containsKey(oldest));
+    }
+
+    private static PlayerData ranked(long lastUpdated) {
+        return PlayerData.builder()
+                .lastUpdated(lastUpdated)
+                .addTier(GameModeManager.getFromInt(0), Tier.B_PLUS)
+                .build();
+    }
+}
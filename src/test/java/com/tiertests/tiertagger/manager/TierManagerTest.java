@@ -0,0 +1,118 @@
+package com.tiertests.tiertagger.manager;
+
+import com.tiertests.tiertagger.api.TierSourceFactory;
+import com.tiertests.tiertagger.config.ModConfig;
+import com.tiertests.tiertagger.data.GameModeManager;
+import com.tiertests.tiertagger.data.ModeFixtures;
+import com.tiertests.tiertagger.data.PlayerData;
+import com.tiertests.tiertagger.data.Tier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Entries are aged by back-dating lastUpdated; every test uses players of its own
+class TierManagerTest {
+    private static final long MINUTE = 60 * 1000;
+
+    @BeforeAll
+    static void loadModes() throws IOException {
+        ModeFixtures.load();
+    }
+
+    @AfterEach
+    void clear() {
+        TierManager.clearCache();
+    }
+
+    @Test
+    void freshDataIsServedWithoutRefresh() {
+        UUID uuid = UUID.randomUUID();
+        PlayerData data = ranked(System.currentTimeMillis() - 4 * MINUTE);
+        TierManager.cachePlayerData(uuid, data);
+
+        assertSame(data, TierManager.getPlayerData(uuid));
+        assertTrue(TierManager.hasPlayerData(uuid));
+        assertFalse(TierManager.needsRefresh(uuid));
+    }
+
+    // The soft deadline is five minutes plus up to a minute of per-player jitter
+    @Test
+    void refreshIsDueBetweenSoftTtlAndJitter() {
+        UUID uuid = UUID.randomUUID();
+        PlayerData data = ranked(System.currentTimeMillis() - MINUTE);
+        TierManager.cachePlayerData(uuid, data);
+
+        long due = TierManager.refreshDueAt(uuid);
+        assertTrue(due >= data.getLastUpdated() + 5 * MINUTE, "due " + (due - data.getLastUpdated()) + " ms after update");
+        assertTrue(due < data.getLastUpdated() + 6 * MINUTE, "due " + (due - data.getLastUpdated()) + " ms after update");
+    }
+
+    @Test
+    void staleDataIsStillServedButNeedsRefresh() {
+        UUID uuid = UUID.randomUUID();
+        PlayerData data = ranked(System.currentTimeMillis() - 6 * MINUTE - 1);
+        TierManager.cachePlayerData(uuid, data);
+
+        assertSame(data, TierManager.getPlayerData(uuid));
+        assertTrue(TierManager.hasPlayerData(uuid));
+        assertTrue(TierManager.needsRefresh(uuid));
+        assertTrue(TierManager.refreshDueAt(uuid) > System.currentTimeMillis());
+    }
+
+    @Test
+    void dataPastHardTtlIsDropped() {
+        UUID uuid = UUID.randomUUID();
+        TierManager.cachePlayerData(uuid, ranked(System.currentTimeMillis() - 30 * MINUTE - 1));
+
+        assertNull(TierManager.getPlayerData(uuid));
+        assertFalse(TierManager.hasPlayerData(uuid));
+        assertNull(TierManager.getCachedData(uuid));
+        assertTrue(TierManager.needsRefresh(uuid));
+    }
+
+    @Test
+    void unrankedPlayerIsServedEmptyWithoutFetching() {
+        UUID uuid = UUID.randomUUID();
+        TierSourceFactory.TierSources source = ModConfig.getTierSource();
+        TierManager.recordUnranked(source, uuid);
+
+        assertTrue(TierManager.isKnownUnranked(source, uuid));
+        assertFalse(TierManager.needsRefresh(uuid));
+        assertSame(PlayerData.EMPTY, TierManager.loadPlayerData(source, uuid, "Unranked").join());
+    }
+
+    @Test
+    void negativeTtlDoublesWithEachMissUpToAnHour() {
+        UUID uuid = UUID.randomUUID();
+        TierSourceFactory.TierSources source = ModConfig.getTierSource();
+        long[] expectedMinutes = {2, 4, 8, 16, 32, 60, 60};
+        for (long minutes : expectedMinutes) {
+            long before = System.currentTimeMillis();
+            TierManager.recordUnranked(source, uuid);
+            long ttl = TierManager.refreshDueAt(uuid) - before;
+
+            assertTrue(ttl >= minutes * MINUTE && ttl < minutes * MINUTE + 1000, "ttl " + ttl + " ms, expected " + minutes + " min");
+        }
+    }
+
+    @Test
+    void negativeEntriesAreKeptPerSource() {
+        UUID uuid = UUID.randomUUID();
+        TierManager.recordUnranked(TierSourceFactory.TierSources.MC_TIERS, uuid);
+
+        assertTrue(TierManager.isKnownUnranked(TierSourceFactory.TierSources.MC_TIERS, uuid));
+        assertFalse(TierManager.isKnownUnranked(TierSourceFactory.TierSources.SUB_TIERS, uuid));
+    }
+
+    private static PlayerData ranked(long lastUpdated) {
+        return PlayerData.builder()
+                .lastUpdated(lastUpdated)
+                .addTier(GameModeManager.getFromInt(0), Tier.A_MINUS)
+                .build();
+    }
+}